@@ -0,0 +1,34 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.annotation;
+
+/**
+ * ================================================
+ * 由 autosize-compiler 根据 {@link AutoSizeTarget} 和 {@link CancelAutoSize} 在编译期生成的适配参数注册表
+ * 生成的类默认为 {@code me.jessyan.autosize.generated.AutoSizeAdaptRegistry}, 多模块项目中每个模块都需要
+ * 通过注解处理器参数 {@code autosize.registryName} 指定不同的全类名, 然后分别注册到 AutoSizeConfig 中
+ * ================================================
+ */
+public interface AdaptRegistry {
+
+    /**
+     * 查找 {@code targetClass} 自身声明的适配参数, 不会查找父类
+     *
+     * @param targetClass Activity 或 Fragment 的 {@link Class}
+     * @return 没有声明时返回 {@code null}
+     */
+    AdaptSpec find(Class<?> targetClass);
+}
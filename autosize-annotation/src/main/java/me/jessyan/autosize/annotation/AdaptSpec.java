@@ -0,0 +1,76 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.annotation;
+
+/**
+ * ================================================
+ * {@link AdaptRegistry} 中保存的适配参数, 对应一个 {@link AutoSizeTarget} 或 {@link CancelAutoSize} 注解
+ * ================================================
+ */
+public final class AdaptSpec {
+    /**
+     * 对应 {@link CancelAutoSize}
+     */
+    public static final AdaptSpec CANCEL = new AdaptSpec(true, true, 0);
+
+    private final boolean isCancel;
+    private final boolean isBaseOnWidth;
+    private final float sizeInDp;
+
+    private AdaptSpec(boolean isCancel, boolean isBaseOnWidth, float sizeInDp) {
+        this.isCancel = isCancel;
+        this.isBaseOnWidth = isBaseOnWidth;
+        this.sizeInDp = sizeInDp;
+    }
+
+    /**
+     * 对应 {@link AutoSizeTarget}
+     *
+     * @param isBaseOnWidth {@link AutoSizeTarget#baseOnWidth()}
+     * @param sizeInDp      {@link AutoSizeTarget#sizeInDp()}
+     * @return {@link AdaptSpec}
+     */
+    public static AdaptSpec of(boolean isBaseOnWidth, float sizeInDp) {
+        return new AdaptSpec(false, isBaseOnWidth, sizeInDp);
+    }
+
+    /**
+     * 是否放弃适配
+     */
+    public boolean isCancel() {
+        return isCancel;
+    }
+
+    public boolean isBaseOnWidth() {
+        return isBaseOnWidth;
+    }
+
+    /**
+     * 设计图尺寸, {@code 0} 表示使用在 AndroidManifest 中填写的设计图尺寸
+     */
+    public float getSizeInDp() {
+        return sizeInDp;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptSpec{" +
+                "isCancel=" + isCancel +
+                ", isBaseOnWidth=" + isBaseOnWidth +
+                ", sizeInDp=" + sizeInDp +
+                '}';
+    }
+}
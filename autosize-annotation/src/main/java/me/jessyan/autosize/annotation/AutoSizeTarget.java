@@ -0,0 +1,61 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * ================================================
+ * 在编译期声明某个 Activity 或 Fragment 的适配参数, 效果与实现 CustomAdapt 接口相同
+ * 但适配参数由 autosize-compiler 在编译期收集并生成 {@link AdaptRegistry}, 运行时只需要一次查表, 不需要任何反射和类型判断
+ * <p>
+ * 使用方式:
+ * <pre>
+ * annotationProcessor 'me.jessyan:autosize-compiler:x.y.z'
+ *
+ * &#64;AutoSizeTarget(baseOnWidth = false, sizeInDp = 667)
+ * public class MainActivity extends AppCompatActivity {
+ * }
+ *
+ * AutoSizeConfig.getInstance().addAdaptRegistry(new AutoSizeAdaptRegistry());
+ * </pre>
+ * 父类上的注解对子类同样有效, 子类可以使用自己的注解, 或者自己实现的 CancelAdapt、CustomAdapt 接口覆盖父类的适配参数
+ * ================================================
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+public @interface AutoSizeTarget {
+
+    /**
+     * 是否按照宽度进行等比例适配 (为了保证在高宽比不同的屏幕上也能正常适配, 所以只能在宽度和高度之中选一个作为基准进行适配)
+     *
+     * @return {@code true} 为按照宽度适配, {@code false} 为按照高度适配
+     */
+    boolean baseOnWidth() default true;
+
+    /**
+     * 设计图上的设计尺寸, 单位 dp, 如果 {@link #baseOnWidth()} 为 {@code true} 则代表设计图的总宽度, 反之则代表设计图的总高度
+     * 返回 {@code 0} 则使用在 AndroidManifest 中填写的设计图尺寸
+     *
+     * @return 设计图尺寸
+     */
+    float sizeInDp() default 0;
+}
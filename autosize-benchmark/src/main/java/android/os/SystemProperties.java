@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.os;
+
+/**
+ * ================================================
+ * 只用于基准测试, 替换 android-all 中同名的类
+ * android-all 中的 SystemProperties 全部是 native 方法, 脱离 Robolectric 在 JVM 上运行时会抛出 UnsatisfiedLinkError
+ * 而 DisplayMetrics 的静态代码块就会读取它, 所以这里直接返回默认值
+ * 编译出的类排在 android-all 之前, 运行时会优先使用这个实现
+ * ================================================
+ */
+public class SystemProperties {
+
+    public static String get(String key) {
+        return "";
+    }
+
+    public static String get(String key, String def) {
+        return def;
+    }
+
+    public static int getInt(String key, int def) {
+        return def;
+    }
+
+    public static long getLong(String key, long def) {
+        return def;
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        return def;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import me.jessyan.autosize.annotation.AdaptRegistry;
+import me.jessyan.autosize.external.ExternalAdaptInfo;
+import me.jessyan.autosize.external.ExternalAdaptManager;
+import me.jessyan.autosize.internal.CustomAdapt;
+
+/**
+ * ================================================
+ * DefaultAutoAdaptStrategy 判断适配方式的耗时, 分别测试 {@link ExternalAdaptManager} 中没有规则和有大量规则时
+ * 命中缓存 ({@code cached}) 以及规则改变后需要重新判断 ({@code uncached}) 两种情况
+ * ================================================
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdaptDecisionBenchmark {
+    /**
+     * {@link ExternalAdaptManager} 中以 {@link Class} 和类名注册的规则数量, 0 表示没有启动 {@link ExternalAdaptManager}
+     */
+    @Param({"0", "200"})
+    public int ruleCount;
+
+    private final AdaptDecisionResolver mResolver = new AdaptDecisionResolver();
+    private final ExternalAdaptManager mExternalAdaptManager = new ExternalAdaptManager();
+    /**
+     * 两个内容相同但实例不同的数组, 交替传入可以让每次判断都因为 {@link AdaptRegistry} 改变而重新计算
+     */
+    private final AdaptRegistry[] mRegistries = new AdaptRegistry[0];
+    private final AdaptRegistry[] mOtherRegistries = new AdaptRegistry[0];
+    private boolean mSwap;
+
+    @Setup
+    public void setup() {
+        if (ruleCount > 0) {
+            List<Class<?>> cancelClasses = new ArrayList<>();
+            Map<Class<?>, ExternalAdaptInfo> infos = new HashMap<>();
+            Class<?>[] candidates = {String.class, Integer.class, Long.class, Short.class, Byte.class, Double.class
+                    , Float.class, Character.class, Boolean.class, Number.class, Thread.class, StringBuilder.class};
+            for (int i = 0; i < candidates.length; i++) {
+                if (i % 2 == 0) {
+                    cancelClasses.add(candidates[i]);
+                } else {
+                    infos.put(candidates[i], new ExternalAdaptInfo(true, 360));
+                }
+            }
+            mExternalAdaptManager.addCancelAdaptOfActivities(cancelClasses);
+            mExternalAdaptManager.addExternalAdaptInfoOfActivities(infos);
+            for (int i = candidates.length; i < ruleCount; i++) {
+                mExternalAdaptManager.addCancelAdaptOfActivity("com.example.thirdparty.Activity" + i);
+            }
+        }
+    }
+
+    @Benchmark
+    public int cachedGlobal() {
+        return mResolver.resolve(GlobalTarget.class, mExternalAdaptManager, mRegistries).type;
+    }
+
+    @Benchmark
+    public int cachedCustom() {
+        return mResolver.resolve(CustomTarget.class, mExternalAdaptManager, mRegistries).type;
+    }
+
+    @Benchmark
+    public int uncachedGlobal() {
+        mSwap = !mSwap;
+        return mResolver.resolve(GlobalTarget.class, mExternalAdaptManager, mSwap ? mOtherRegistries : mRegistries).type;
+    }
+
+    public static class GlobalTarget {
+    }
+
+    public static class CustomTarget implements CustomAdapt {
+        @Override
+        public boolean isBaseOnWidth() {
+            return true;
+        }
+
+        @Override
+        public float getSizeInDp() {
+            return 360;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.jessyan.autosize.core.DensityCache;
+import me.jessyan.autosize.core.DensityCalculator;
+import me.jessyan.autosize.core.DensityInfo;
+
+/**
+ * ================================================
+ * {@link AutoSizeEngine} 查找适配结果时经过的 {@link DisplayMetricsInfoCache#obtain} 的两条路径:
+ * 缓存命中, 以及缓存未命中时的计算、创建和淘汰
+ * ================================================
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DensityCacheBenchmark {
+    private static final int VERSION = 0;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+    private static final float FONT_SCALE = 1.0f;
+    /**
+     * 未命中时循环使用的设计图尺寸数量, 远大于缓存容量, 保证每次都不会命中并且都会淘汰一个条目
+     */
+    private static final int MISS_KEY_COUNT = DensityCache.DEFAULT_MAX_SIZE * 16;
+
+    private DisplayMetricsInfoCache mCache;
+    private int mMissIndex;
+
+    @Setup
+    public void setup() {
+        //与 AutoSizeEngine 相同, 统计默认关闭
+        mCache = new DisplayMetricsInfoCache(DensityCache.DEFAULT_MAX_SIZE, new AdaptMetricsRecorder());
+        obtain(360);
+    }
+
+    @Benchmark
+    public DisplayMetricsInfo hit() {
+        return obtain(360);
+    }
+
+    @Benchmark
+    public DisplayMetricsInfo miss() {
+        mMissIndex = (mMissIndex + 1) % MISS_KEY_COUNT;
+        return obtain(1000 + mMissIndex);
+    }
+
+    @Benchmark
+    public DensityInfo calculate() {
+        return DensityCalculator.calculate(360, 360, true, SCREEN_WIDTH, SCREEN_HEIGHT, FONT_SCALE);
+    }
+
+    private DisplayMetricsInfo obtain(float sizeInDp) {
+        return mCache.obtain(VERSION, sizeInDp, sizeInDp, true, false, SCREEN_WIDTH, SCREEN_HEIGHT, FONT_SCALE);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.util.DisplayMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.jessyan.autosize.unit.Subunits;
+import me.jessyan.autosize.unit.UnitsManager;
+
+/**
+ * ================================================
+ * {@link DensityWriter#setDensity(DisplayMetrics, DisplayMetricsInfo, UnitsManager)} 的赋值耗时, 分别测试不同的副单位
+ * ================================================
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetDensityBenchmark {
+    @Param({"NONE", "PT", "MM"})
+    public Subunits subunits;
+
+    private DisplayMetrics mDisplayMetrics;
+    private DisplayMetricsInfo mInfo;
+    private UnitsManager mUnitsManager;
+
+    @Setup
+    public void setup() {
+        mDisplayMetrics = new DisplayMetrics();
+        mInfo = new ImmutableDisplayMetricsInfo(3, 480, 3, 3, 360, 640);
+        mUnitsManager = new UnitsManager().setSupportSubunits(subunits);
+    }
+
+    @Benchmark
+    public DisplayMetrics setDensity() {
+        DensityWriter.setDensity(mDisplayMetrics, mInfo, mUnitsManager);
+        return mDisplayMetrics;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import me.jessyan.autosize.utils.AutoSizeUtils;
+
+/**
+ * ================================================
+ * {@link AutoSizeUtils} 中 dp2px、sp2px、pt2px 的换算耗时
+ * 使用的 {@link Context} 只返回一个已经适配过的 {@link DisplayMetrics}, 所以测到的是 {@link AutoSizeUtils} 自身加上
+ * {@link Context#getResources()} 和 {@link Resources#getDisplayMetrics()} 各一次虚方法调用的开销
+ * ================================================
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnitConversionBenchmark {
+    private Context mContext;
+    private float mValue = 16;
+
+    @Setup
+    public void setup() {
+        DisplayMetrics displayMetrics = new DisplayMetrics();
+        displayMetrics.density = 3;
+        displayMetrics.densityDpi = 480;
+        displayMetrics.scaledDensity = 3;
+        displayMetrics.xdpi = 3 * 72;
+        mContext = new FixedMetricsContext(new FixedMetricsResources(displayMetrics));
+    }
+
+    @Benchmark
+    public int dp2px() {
+        return AutoSizeUtils.dp2px(mContext, mValue);
+    }
+
+    @Benchmark
+    public int sp2px() {
+        return AutoSizeUtils.sp2px(mContext, mValue);
+    }
+
+    @Benchmark
+    public int pt2px() {
+        return AutoSizeUtils.pt2px(mContext, mValue);
+    }
+
+    /**
+     * android-all 中的 {@link Resources} 需要 native 的 AssetManager 才能正常创建, 所以这里使用只保存了
+     * {@link ClassLoader} 的构造方法, 并直接返回固定的 {@link DisplayMetrics}
+     */
+    private static final class FixedMetricsResources extends Resources {
+        private final DisplayMetrics mDisplayMetrics;
+
+        FixedMetricsResources(DisplayMetrics displayMetrics) {
+            super(FixedMetricsResources.class.getClassLoader());
+            mDisplayMetrics = displayMetrics;
+        }
+
+        @Override
+        public DisplayMetrics getDisplayMetrics() {
+            return mDisplayMetrics;
+        }
+    }
+
+    private static final class FixedMetricsContext extends ContextWrapper {
+        private final Resources mResources;
+
+        FixedMetricsContext(Resources resources) {
+            super(null);
+            mResources = resources;
+        }
+
+        @Override
+        public Resources getResources() {
+            return mResources;
+        }
+    }
+}
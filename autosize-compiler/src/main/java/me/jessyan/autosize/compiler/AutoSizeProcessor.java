@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.compiler;
+
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+
+import me.jessyan.autosize.annotation.AdaptRegistry;
+import me.jessyan.autosize.annotation.AdaptSpec;
+import me.jessyan.autosize.annotation.AutoSizeTarget;
+import me.jessyan.autosize.annotation.CancelAutoSize;
+
+/**
+ * ================================================
+ * 收集所有被 {@link AutoSizeTarget} 和 {@link CancelAutoSize} 注解的类, 生成一个 {@link AdaptRegistry} 的实现类
+ * 生成的类不能在最后一轮 ({@link RoundEnvironment#processingOver()}) 写入, 否则 javac 会警告它不会再被注解处理
+ * 所以在第一次发现被注解的类的那一轮结束时写入, 之后的轮次中由其他注解处理器生成的被注解的类无法再加入注册表, 会直接报错
+ * 生成的类在静态代码块中把所有适配参数放入一个以 {@link Class} 为 key 的 Map, 运行时查找适配参数只需要一次查表
+ * <p>
+ * 可以通过注解处理器参数 {@link #OPTION_REGISTRY_NAME} 指定生成的类的全类名, 默认为 {@link #DEFAULT_REGISTRY_NAME}
+ * ================================================
+ */
+public class AutoSizeProcessor extends AbstractProcessor {
+    static final String OPTION_REGISTRY_NAME = "autosize.registryName";
+    static final String DEFAULT_REGISTRY_NAME = "me.jessyan.autosize.generated.AutoSizeAdaptRegistry";
+
+    private Filer mFiler;
+    private Messager mMessager;
+    /**
+     * key 为全类名, value 为 SPECS.put 的参数, 以全类名排序, 保证每次编译生成的代码都是一样的
+     */
+    private final Map<String, CodeBlock> mSpecs = new TreeMap<>();
+    private final Set<TypeElement> mOriginatingElements = new LinkedHashSet<>();
+    private boolean mGenerated;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(AutoSizeTarget.class.getCanonicalName());
+        types.add(CancelAutoSize.class.getCanonicalName());
+        return types;
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_REGISTRY_NAME);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(AutoSizeTarget.class)) {
+            if (!checkElement(element, AutoSizeTarget.class) || !checkNotGenerated(element)) {
+                continue;
+            }
+            if (element.getAnnotation(CancelAutoSize.class) != null) {
+                error(element, "@%s and @%s can't be used on the same class", AutoSizeTarget.class.getSimpleName()
+                        , CancelAutoSize.class.getSimpleName());
+                continue;
+            }
+            AutoSizeTarget target = element.getAnnotation(AutoSizeTarget.class);
+            if (target.sizeInDp() < 0 || Float.isNaN(target.sizeInDp()) || Float.isInfinite(target.sizeInDp())) {
+                error(element, "@%s.sizeInDp must be >= 0, but is %s", AutoSizeTarget.class.getSimpleName(), target.sizeInDp());
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) element;
+            mSpecs.put(typeElement.getQualifiedName().toString(), CodeBlock.of("$T.class, $T.of($L, $Lf)"
+                    , ClassName.get(typeElement), AdaptSpec.class, target.baseOnWidth(), target.sizeInDp()));
+            mOriginatingElements.add(typeElement);
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(CancelAutoSize.class)) {
+            if (!checkElement(element, CancelAutoSize.class) || element.getAnnotation(AutoSizeTarget.class) != null
+                    || !checkNotGenerated(element)) {
+                continue;
+            }
+            TypeElement typeElement = (TypeElement) element;
+            mSpecs.put(typeElement.getQualifiedName().toString(), CodeBlock.of("$T.class, $T.CANCEL"
+                    , ClassName.get(typeElement), AdaptSpec.class));
+            mOriginatingElements.add(typeElement);
+        }
+
+        if (!roundEnv.processingOver() && !mGenerated && !mSpecs.isEmpty()) {
+            mGenerated = true;
+            generateRegistry();
+        }
+        return false;
+    }
+
+    /**
+     * 被注解的必须是类, 并且生成的注册表要能够引用到这个类, 所以这个类以及所有外部类都必须是 public 的
+     */
+    private boolean checkElement(Element element, Class<?> annotation) {
+        if (element.getKind() != ElementKind.CLASS) {
+            error(element, "@%s can only be used on classes", annotation.getSimpleName());
+            return false;
+        }
+        for (Element e = element; e != null && e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                error(element, "@%s can only be used on public classes, %s is not public", annotation.getSimpleName(), e);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 注册表已经生成后, 之后的轮次中出现的被注解的类无法再加入注册表
+     */
+    private boolean checkNotGenerated(Element element) {
+        if (mGenerated) {
+            error(element, "%s was generated after the adapt registry had been written, it can't be annotated"
+                    , ((TypeElement) element).getQualifiedName());
+            return false;
+        }
+        return true;
+    }
+
+    private void generateRegistry() {
+        String registryName = processingEnv.getOptions().get(OPTION_REGISTRY_NAME);
+        if (registryName == null || registryName.trim().isEmpty()) {
+            registryName = DEFAULT_REGISTRY_NAME;
+        }
+        ClassName registryClassName = ClassName.bestGuess(registryName.trim());
+        ClassName specClassName = ClassName.get(AdaptSpec.class);
+        TypeName classType = ParameterizedTypeName.get(ClassName.get(Class.class), WildcardTypeName.subtypeOf(Object.class));
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(Map.class), classType, specClassName);
+        TypeName hashMapType = ParameterizedTypeName.get(ClassName.get("java.util", "HashMap"), classType, specClassName);
+
+        CodeBlock.Builder staticBlock = CodeBlock.builder()
+                .addStatement("SPECS = new $T($L)", hashMapType, (int) (mSpecs.size() / 0.75f) + 1);
+        for (Map.Entry<String, CodeBlock> entry : mSpecs.entrySet()) {
+            staticBlock.addStatement("SPECS.put($L)", entry.getValue());
+        }
+
+        TypeSpec.Builder registry = TypeSpec.classBuilder(registryClassName)
+                .addJavadoc("Generated by $L, do not edit.\n", AutoSizeProcessor.class.getName())
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addSuperinterface(AdaptRegistry.class)
+                .addField(FieldSpec.builder(mapType, "SPECS", Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL).build())
+                .addStaticBlock(staticBlock.build())
+                .addMethod(MethodSpec.methodBuilder("find")
+                        .addAnnotation(Override.class)
+                        .addModifiers(Modifier.PUBLIC)
+                        .addParameter(classType, "targetClass")
+                        .returns(specClassName)
+                        .addStatement("return SPECS.get(targetClass)")
+                        .build());
+        for (TypeElement element : mOriginatingElements) {
+            registry.addOriginatingElement(element);
+        }
+
+        try {
+            JavaFile.builder(registryClassName.packageName(), registry.build())
+                    .skipJavaLangImports(true)
+                    .build()
+                    .writeTo(mFiler);
+        } catch (IOException e) {
+            mMessager.printMessage(Diagnostic.Kind.ERROR, "Unable to write " + registryName + ": " + e.getMessage());
+        }
+    }
+
+    private void error(Element element, String format, Object... args) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, String.format(format, args), element);
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+import java.util.Arrays;
+
+/**
+ * ================================================
+ * AndroidAutoSize 适配结果 ({@link DensityInfo} 或者 Android 中的 DisplayMetricsInfo) 的缓存, 使用开放寻址 (线性探测) 的哈希表实现
+ * <p>
+ * 缓存的 key 是完整的参数元组 (设计图尺寸、副单位设计图尺寸、屏幕宽高、是否以宽度为基准、是否使用设备实际尺寸、字体缩放比例),
+ * 所有 key 都以 {@code int} 的形式平铺在同一个数组中, 查找时不会产生任何对象, 也不会像之前把参数相加后作为 key 那样出现碰撞
+ * <p>
+ * 缓存中的 value 应该是不可变的, 相同的参数永远返回同一个实例, 所以可以放心的共享
+ * <p>
+ * 缓存有容量上限, 超出上限时按照 LRU 的规则淘汰最久未使用的条目, LRU 链表同样使用 {@code int} 数组实现, 命中时调整顺序也不会产生任何对象
+ * <p>
+ * 每个条目还会记录存入时的版本号 (见 {@link #setVersion(int)}), 影响计算结果但不在 key 中的配置发生变化时, 只需要修改版本号
+ * 版本号不一致的条目在下次被查找时视为未命中并被删除, 所以修改版本号是 O(1) 的, 命中时也只多了一次 {@code int} 比较
+ * 此类不是线程安全的, 只允许在主线程中使用
+ * ================================================
+ */
+public final class DensityCache<V> {
+    public static final int FLAG_BASE_ON_WIDTH = 1;
+    public static final int FLAG_USE_DEVICE_SIZE = 1 << 1;
+    /**
+     * 默认最多缓存的条目数量
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+    /**
+     * 每个 key 由 6 个 {@code int} 组成
+     */
+    private static final int KEY_STRIDE = 6;
+    private static final int NONE = -1;
+
+    private int[] mKeys;
+    /**
+     * 泛型不能直接创建数组, 所以使用 {@code Object[]} 保存 value
+     */
+    private Object[] mValues;
+    /**
+     * 每个槽位上的条目存入时的版本号
+     */
+    private int[] mVersions;
+    /**
+     * LRU 双向链表, 下标为槽位, {@link #mHead} 为最近使用的条目, {@link #mTail} 为最久未使用的条目
+     */
+    private int[] mPrev;
+    private int[] mNext;
+    private int mHead = NONE;
+    private int mTail = NONE;
+    private int mMask;
+    private int mSize;
+    private int mMaxSize;
+    private int mVersion;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+
+    public DensityCache(int maxSize) {
+        checkMaxSize(maxSize);
+        mMaxSize = maxSize;
+        allocate(tableSizeFor(maxSize));
+    }
+
+    /**
+     * 保证装载因子不超过 0.75, 并且是 2 的幂, 包级可见以便测试构造特定的探测序列
+     */
+    static int tableSizeFor(int maxSize) {
+        int capacity = 4;
+        while (capacity * 3 < maxSize * 4) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new int[capacity * KEY_STRIDE];
+        mValues = new Object[capacity];
+        mVersions = new int[capacity];
+        mPrev = new int[capacity];
+        mNext = new int[capacity];
+        mMask = capacity - 1;
+        mHead = NONE;
+        mTail = NONE;
+        mSize = 0;
+    }
+
+    /**
+     * 查找缓存, 命中时该条目会成为最近使用的条目
+     *
+     * @param sizeInDp           设计图尺寸
+     * @param subunitsDesignSize 副单位的设计图尺寸
+     * @param screenWidth        屏幕宽度
+     * @param screenHeight       屏幕高度
+     * @param flags              {@link #FLAG_BASE_ON_WIDTH}、{@link #FLAG_USE_DEVICE_SIZE}
+     * @param fontScale          最终使用的字体缩放比例
+     * @return 没有命中时返回 {@code null}
+     */
+    @SuppressWarnings("unchecked")
+    public V get(float sizeInDp, float subunitsDesignSize, int screenWidth, int screenHeight, int flags, float fontScale) {
+        int k0 = Float.floatToIntBits(sizeInDp);
+        int k1 = Float.floatToIntBits(subunitsDesignSize);
+        int k5 = Float.floatToIntBits(fontScale);
+        int slot = hash(k0, k1, screenWidth, screenHeight, flags, k5) & mMask;
+        while (true) {
+            Object value = mValues[slot];
+            if (value == null) {
+                mMissCount++;
+                return null;
+            }
+            if (matches(slot, k0, k1, screenWidth, screenHeight, flags, k5)) {
+                if (mVersions[slot] != mVersion) {
+                    //条目是在旧的配置下计算的, 已经失效
+                    remove(slot);
+                    mMissCount++;
+                    return null;
+                }
+                mHitCount++;
+                if (slot != mHead) {
+                    unlink(slot);
+                    linkFirst(slot);
+                }
+                return (V) value;
+            }
+            slot = (slot + 1) & mMask;
+        }
+    }
+
+    /**
+     * 存入缓存, 参数与 {@link #get} 相同, 如果缓存已满, 会先淘汰最久未使用的条目
+     *
+     * @param value 计算好的适配结果, 存入后不允许再修改
+     */
+    public void put(float sizeInDp, float subunitsDesignSize, int screenWidth, int screenHeight, int flags, float fontScale, V value) {
+        if (value == null) {
+            throw new NullPointerException("value == null");
+        }
+        int k0 = Float.floatToIntBits(sizeInDp);
+        int k1 = Float.floatToIntBits(subunitsDesignSize);
+        int k5 = Float.floatToIntBits(fontScale);
+        int slot = find(k0, k1, screenWidth, screenHeight, flags, k5);
+        if (slot != NONE) {
+            mValues[slot] = value;
+            mVersions[slot] = mVersion;
+            if (slot != mHead) {
+                unlink(slot);
+                linkFirst(slot);
+            }
+            return;
+        }
+        if (mSize >= mMaxSize) {
+            remove(mTail);
+            mEvictionCount++;
+        }
+        insert(k0, k1, screenWidth, screenHeight, flags, k5, value, mVersion);
+    }
+
+    /**
+     * 修改缓存的容量上限, 超出新上限的条目会按照 LRU 的规则被淘汰
+     *
+     * @param maxSize 最多缓存的条目数量
+     */
+    public void resize(int maxSize) {
+        checkMaxSize(maxSize);
+        int[] oldKeys = mKeys;
+        Object[] oldValues = mValues;
+        int[] oldPrev = mPrev;
+        int[] oldVersions = mVersions;
+        int oldTail = mTail;
+        int oldSize = mSize;
+
+        mMaxSize = maxSize;
+        allocate(tableSizeFor(maxSize));
+        //从最久未使用的条目开始按顺序重新插入, 这样 LRU 的顺序可以保持不变
+        int skip = Math.max(0, oldSize - maxSize);
+        mEvictionCount += skip;
+        for (int slot = oldTail; slot != NONE; slot = oldPrev[slot]) {
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            int offset = slot * KEY_STRIDE;
+            insert(oldKeys[offset], oldKeys[offset + 1], oldKeys[offset + 2], oldKeys[offset + 3]
+                    , oldKeys[offset + 4], oldKeys[offset + 5], oldValues[slot], oldVersions[slot]);
+        }
+    }
+
+    /**
+     * 修改版本号, 之后存入的条目都会记录这个版本号, 版本号不一致的条目在查找时视为未命中
+     * 当影响计算结果的配置 (如字体缩放、副单位) 发生变化时调用, 不会立即遍历缓存
+     *
+     * @param version 版本号
+     */
+    public void setVersion(int version) {
+        mVersion = version;
+    }
+
+    public int version() {
+        return mVersion;
+    }
+
+    /**
+     * 清空缓存, 不会重置统计数据
+     */
+    public void clear() {
+        Arrays.fill(mValues, null);
+        mHead = NONE;
+        mTail = NONE;
+        mSize = 0;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int maxSize() {
+        return mMaxSize;
+    }
+
+    public long hitCount() {
+        return mHitCount;
+    }
+
+    public long missCount() {
+        return mMissCount;
+    }
+
+    public long evictionCount() {
+        return mEvictionCount;
+    }
+
+    private static void checkMaxSize(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be > 0");
+        }
+    }
+
+    private int find(int k0, int k1, int k2, int k3, int k4, int k5) {
+        int slot = hash(k0, k1, k2, k3, k4, k5) & mMask;
+        while (mValues[slot] != null) {
+            if (matches(slot, k0, k1, k2, k3, k4, k5)) {
+                return slot;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return NONE;
+    }
+
+    private void insert(int k0, int k1, int k2, int k3, int k4, int k5, Object value, int version) {
+        int slot = hash(k0, k1, k2, k3, k4, k5) & mMask;
+        while (mValues[slot] != null) {
+            slot = (slot + 1) & mMask;
+        }
+        int offset = slot * KEY_STRIDE;
+        mKeys[offset] = k0;
+        mKeys[offset + 1] = k1;
+        mKeys[offset + 2] = k2;
+        mKeys[offset + 3] = k3;
+        mKeys[offset + 4] = k4;
+        mKeys[offset + 5] = k5;
+        mValues[slot] = value;
+        mVersions[slot] = version;
+        linkFirst(slot);
+        mSize++;
+    }
+
+    /**
+     * 删除槽位上的条目, 并将后续探测链上的条目前移, 保证线性探测的查找不会因为空洞而中断
+     */
+    private void remove(int slot) {
+        unlink(slot);
+        mValues[slot] = null;
+        mSize--;
+
+        int hole = slot;
+        int i = (slot + 1) & mMask;
+        while (mValues[i] != null) {
+            int offset = i * KEY_STRIDE;
+            int ideal = hash(mKeys[offset], mKeys[offset + 1], mKeys[offset + 2], mKeys[offset + 3]
+                    , mKeys[offset + 4], mKeys[offset + 5]) & mMask;
+            //ideal 不在 (hole, i] 区间内时, 说明该条目可以前移到 hole
+            boolean movable = hole <= i ? (ideal <= hole || ideal > i) : (ideal <= hole && ideal > i);
+            if (movable) {
+                move(i, hole);
+                hole = i;
+            }
+            i = (i + 1) & mMask;
+        }
+    }
+
+    private void move(int from, int to) {
+        System.arraycopy(mKeys, from * KEY_STRIDE, mKeys, to * KEY_STRIDE, KEY_STRIDE);
+        mValues[to] = mValues[from];
+        mValues[from] = null;
+        mVersions[to] = mVersions[from];
+
+        int prev = mPrev[from];
+        int next = mNext[from];
+        mPrev[to] = prev;
+        mNext[to] = next;
+        if (prev == NONE) {
+            mHead = to;
+        } else {
+            mNext[prev] = to;
+        }
+        if (next == NONE) {
+            mTail = to;
+        } else {
+            mPrev[next] = to;
+        }
+    }
+
+    private void linkFirst(int slot) {
+        mPrev[slot] = NONE;
+        mNext[slot] = mHead;
+        if (mHead == NONE) {
+            mTail = slot;
+        } else {
+            mPrev[mHead] = slot;
+        }
+        mHead = slot;
+    }
+
+    private void unlink(int slot) {
+        int prev = mPrev[slot];
+        int next = mNext[slot];
+        if (prev == NONE) {
+            mHead = next;
+        } else {
+            mNext[prev] = next;
+        }
+        if (next == NONE) {
+            mTail = prev;
+        } else {
+            mPrev[next] = prev;
+        }
+    }
+
+    private boolean matches(int slot, int k0, int k1, int k2, int k3, int k4, int k5) {
+        int offset = slot * KEY_STRIDE;
+        return mKeys[offset] == k0
+                && mKeys[offset + 1] == k1
+                && mKeys[offset + 2] == k2
+                && mKeys[offset + 3] == k3
+                && mKeys[offset + 4] == k4
+                && mKeys[offset + 5] == k5;
+    }
+
+    /**
+     * 包级可见以便测试构造发生碰撞的 key
+     */
+    static int hash(int k0, int k1, int k2, int k3, int k4, int k5) {
+        int h = k0;
+        h = h * 31 + k1;
+        h = h * 31 + k2;
+        h = h * 31 + k3;
+        h = h * 31 + k4;
+        h = h * 31 + k5;
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
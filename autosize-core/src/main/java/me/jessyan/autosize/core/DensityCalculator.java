@@ -0,0 +1,70 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+/**
+ * ================================================
+ * 今日头条适配方案的核心计算, 不依赖任何 Android 类, 也没有任何副作用, 相同的输入永远得到相同的结果
+ * 所以可以在普通的 JVM 上进行测试和基准测试, AndroidAutoSize 的适配引擎也使用此类完成计算
+ * ================================================
+ */
+public final class DensityCalculator {
+
+    private DensityCalculator() {
+        throw new IllegalStateException("you can't instantiate me!");
+    }
+
+    /**
+     * 根据设计图和屏幕参数计算适配后的 density、scaledDensity、densityDpi、xdpi 以及以 dp 为单位的屏幕宽高
+     *
+     * @param design {@link DesignSpec}
+     * @param screen {@link ScreenSpec}
+     * @return {@link DensityInfo}
+     */
+    public static DensityInfo calculate(DesignSpec design, ScreenSpec screen) {
+        if (design == null || screen == null) {
+            throw new NullPointerException("design == null || screen == null");
+        }
+        return calculate(design.getSizeInDp(), design.getSubunitsDesignSize(), design.isBaseOnWidth()
+                , screen.getScreenWidth(), screen.getScreenHeight(), screen.getFontScale());
+    }
+
+    /**
+     * 与 {@link #calculate(DesignSpec, ScreenSpec)} 相同, 但直接接收基本类型的参数, 不需要先创建 {@link DesignSpec} 和 {@link ScreenSpec}
+     * 参数不会被校验, 由调用者保证参数有效
+     *
+     * @param sizeInDp           设计图上的设计尺寸, 单位 dp
+     * @param subunitsDesignSize 副单位使用的设计图尺寸
+     * @param isBaseOnWidth      是否按照宽度进行等比例适配
+     * @param screenWidth        屏幕宽度, 单位 px
+     * @param screenHeight       屏幕高度, 单位 px
+     * @param fontScale          字体缩放比例
+     * @return {@link DensityInfo}
+     */
+    public static DensityInfo calculate(float sizeInDp, float subunitsDesignSize, boolean isBaseOnWidth
+            , int screenWidth, int screenHeight, float fontScale) {
+        int screenSize = isBaseOnWidth ? screenWidth : screenHeight;
+        float targetDensity = screenSize * 1.0f / sizeInDp;
+        float targetScaledDensity = targetDensity * fontScale;
+        int targetDensityDpi = (int) (targetDensity * 160);
+
+        int targetScreenWidthDp = (int) (screenWidth / targetDensity);
+        int targetScreenHeightDp = (int) (screenHeight / targetDensity);
+
+        float targetXdpi = screenSize * 1.0f / subunitsDesignSize;
+        return new DensityInfo(targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi, targetScreenWidthDp, targetScreenHeightDp);
+    }
+}
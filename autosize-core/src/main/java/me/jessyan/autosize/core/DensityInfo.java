@@ -0,0 +1,106 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+/**
+ * ================================================
+ * {@link DensityCalculator} 的计算结果, 不可变, 字段与 Android 中的 DisplayMetrics 和 Configuration 一一对应
+ * ================================================
+ */
+public final class DensityInfo {
+    private final float density;
+    private final int densityDpi;
+    private final float scaledDensity;
+    private final float xdpi;
+    private final int screenWidthDp;
+    private final int screenHeightDp;
+
+    public DensityInfo(float density, int densityDpi, float scaledDensity, float xdpi, int screenWidthDp, int screenHeightDp) {
+        this.density = density;
+        this.densityDpi = densityDpi;
+        this.scaledDensity = scaledDensity;
+        this.xdpi = xdpi;
+        this.screenWidthDp = screenWidthDp;
+        this.screenHeightDp = screenHeightDp;
+    }
+
+    public float getDensity() {
+        return density;
+    }
+
+    public int getDensityDpi() {
+        return densityDpi;
+    }
+
+    public float getScaledDensity() {
+        return scaledDensity;
+    }
+
+    /**
+     * 以 {@code in} 为单位的 xdpi, 使用 {@code pt} 或 {@code mm} 作为副单位时还需要分别乘以 72 或 25.4
+     */
+    public float getXdpi() {
+        return xdpi;
+    }
+
+    public int getScreenWidthDp() {
+        return screenWidthDp;
+    }
+
+    public int getScreenHeightDp() {
+        return screenHeightDp;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DensityInfo)) {
+            return false;
+        }
+        DensityInfo that = (DensityInfo) o;
+        return Float.compare(that.density, density) == 0
+                && densityDpi == that.densityDpi
+                && Float.compare(that.scaledDensity, scaledDensity) == 0
+                && Float.compare(that.xdpi, xdpi) == 0
+                && screenWidthDp == that.screenWidthDp
+                && screenHeightDp == that.screenHeightDp;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Float.floatToIntBits(density);
+        result = 31 * result + densityDpi;
+        result = 31 * result + Float.floatToIntBits(scaledDensity);
+        result = 31 * result + Float.floatToIntBits(xdpi);
+        result = 31 * result + screenWidthDp;
+        result = 31 * result + screenHeightDp;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "DensityInfo{" +
+                "density=" + density +
+                ", densityDpi=" + densityDpi +
+                ", scaledDensity=" + scaledDensity +
+                ", xdpi=" + xdpi +
+                ", screenWidthDp=" + screenWidthDp +
+                ", screenHeightDp=" + screenHeightDp +
+                '}';
+    }
+}
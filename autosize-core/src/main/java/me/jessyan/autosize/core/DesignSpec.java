@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+/**
+ * ================================================
+ * {@link DensityCalculator} 的输入之一, 描述设计图的不可变参数
+ * ================================================
+ */
+public final class DesignSpec {
+    private final float sizeInDp;
+    private final float subunitsDesignSize;
+    private final boolean isBaseOnWidth;
+
+    /**
+     * 副单位与主单位使用同一个设计图尺寸
+     *
+     * @param sizeInDp      设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     */
+    public DesignSpec(float sizeInDp, boolean isBaseOnWidth) {
+        this(sizeInDp, sizeInDp, isBaseOnWidth);
+    }
+
+    /**
+     * @param sizeInDp           设计图上的设计尺寸, 单位 dp
+     * @param subunitsDesignSize 副单位 (pt、in、mm) 使用的设计图尺寸, 小于等于 0 时与 {@code sizeInDp} 相同
+     * @param isBaseOnWidth      是否按照宽度进行等比例适配
+     */
+    public DesignSpec(float sizeInDp, float subunitsDesignSize, boolean isBaseOnWidth) {
+        if (!(sizeInDp > 0)) {
+            throw new IllegalArgumentException("sizeInDp must be > 0");
+        }
+        this.sizeInDp = sizeInDp;
+        this.subunitsDesignSize = subunitsDesignSize > 0 ? subunitsDesignSize : sizeInDp;
+        this.isBaseOnWidth = isBaseOnWidth;
+    }
+
+    public float getSizeInDp() {
+        return sizeInDp;
+    }
+
+    public float getSubunitsDesignSize() {
+        return subunitsDesignSize;
+    }
+
+    public boolean isBaseOnWidth() {
+        return isBaseOnWidth;
+    }
+
+    @Override
+    public String toString() {
+        return "DesignSpec{" +
+                "sizeInDp=" + sizeInDp +
+                ", subunitsDesignSize=" + subunitsDesignSize +
+                ", isBaseOnWidth=" + isBaseOnWidth +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+/**
+ * ================================================
+ * {@link DensityCalculator} 的输入之一, 描述当前设备屏幕的不可变参数
+ * ================================================
+ */
+public final class ScreenSpec {
+    private final int screenWidth;
+    private final int screenHeight;
+    private final float fontScale;
+
+    /**
+     * @param screenWidth  参与适配的屏幕宽度, 单位 px
+     * @param screenHeight 参与适配的屏幕高度, 单位 px, 不使用设备实际尺寸时应该已经减去状态栏的高度
+     * @param fontScale    字体缩放比例, scaledDensity = density * fontScale
+     */
+    public ScreenSpec(int screenWidth, int screenHeight, float fontScale) {
+        if (screenWidth <= 0 || screenHeight <= 0) {
+            throw new IllegalArgumentException("screenWidth and screenHeight must be > 0");
+        }
+        if (!(fontScale > 0)) {
+            throw new IllegalArgumentException("fontScale must be > 0");
+        }
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.fontScale = fontScale;
+    }
+
+    public int getScreenWidth() {
+        return screenWidth;
+    }
+
+    public int getScreenHeight() {
+        return screenHeight;
+    }
+
+    public float getFontScale() {
+        return fontScale;
+    }
+
+    @Override
+    public String toString() {
+        return "ScreenSpec{" +
+                "screenWidth=" + screenWidth +
+                ", screenHeight=" + screenHeight +
+                ", fontScale=" + fontScale +
+                '}';
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link DensityCache} 的单元测试, 除了常规的读写之外, 还会通过 {@link DensityCache#hash} 构造落在同一个槽位上的 key,
+ * 覆盖线性探测越过数组末尾、删除时向前移动条目、扩缩容以及版本号失效等边界情况
+ */
+public class DensityCacheTest {
+    private static final float SUBUNITS_DESIGN_SIZE = 1080;
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+    private static final int FLAGS = DensityCache.FLAG_BASE_ON_WIDTH;
+    private static final float FONT_SCALE = 1;
+
+    @Test
+    public void getReturnsNullWhenEmpty() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        assertNull(get(cache, 360));
+        assertEquals(1, cache.missCount());
+        assertEquals(0, cache.hitCount());
+    }
+
+    @Test
+    public void getReturnsTheSameInstanceThatWasPut() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        String value = new String("360");
+        put(cache, 360, value);
+        assertSame(value, get(cache, 360));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * 之前的实现把参数相加后作为 key, 这些参数组合的和都相同, 现在必须互不影响
+     */
+    @Test
+    public void packedKeysWithTheSameSumAreDistinct() {
+        DensityCache<String> cache = new DensityCache<>(16);
+        cache.put(360, 640, 1080, 1920, 0, 1, "a");
+        cache.put(640, 360, 1080, 1920, 0, 1, "b");
+        cache.put(360, 640, 1920, 1080, 0, 1, "c");
+        cache.put(360, 640, 1080, 1920, DensityCache.FLAG_BASE_ON_WIDTH, 1, "d");
+        cache.put(360, 640, 1080, 1920, DensityCache.FLAG_USE_DEVICE_SIZE, 1, "e");
+        cache.put(360, 640, 1080, 1920, 0, 1.5f, "f");
+        cache.put(361, 639, 1080, 1920, 0, 1, "g");
+
+        assertEquals("a", cache.get(360, 640, 1080, 1920, 0, 1));
+        assertEquals("b", cache.get(640, 360, 1080, 1920, 0, 1));
+        assertEquals("c", cache.get(360, 640, 1920, 1080, 0, 1));
+        assertEquals("d", cache.get(360, 640, 1080, 1920, DensityCache.FLAG_BASE_ON_WIDTH, 1));
+        assertEquals("e", cache.get(360, 640, 1080, 1920, DensityCache.FLAG_USE_DEVICE_SIZE, 1));
+        assertEquals("f", cache.get(360, 640, 1080, 1920, 0, 1.5f));
+        assertEquals("g", cache.get(361, 639, 1080, 1920, 0, 1));
+        assertEquals(7, cache.size());
+    }
+
+    @Test
+    public void collidingKeysAreAllRetrievable() {
+        int maxSize = 16;
+        float[] keys = findKeysWithSlot(maxSize, 5, 5);
+        DensityCache<String> cache = new DensityCache<>(maxSize);
+        for (float key : keys) {
+            put(cache, key, String.valueOf(key));
+        }
+        for (float key : keys) {
+            assertEquals(String.valueOf(key), get(cache, key));
+        }
+        assertEquals(keys.length, cache.size());
+    }
+
+    @Test
+    public void putExistingKeyReplacesTheValue() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        put(cache, 360, "old");
+        put(cache, 360, "new");
+        assertEquals("new", get(cache, 360));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictsTheLeastRecentlyUsedEntry() {
+        DensityCache<String> cache = new DensityCache<>(3);
+        put(cache, 1, "1");
+        put(cache, 2, "2");
+        put(cache, 3, "3");
+        //访问 1 之后, 2 成为最久未使用的条目
+        assertEquals("1", get(cache, 1));
+        put(cache, 4, "4");
+
+        assertNull(get(cache, 2));
+        assertEquals(1, cache.evictionCount());
+        assertEquals(3, cache.size());
+
+        //现在的顺序 (从旧到新) 为 3、1、4
+        put(cache, 5, "5");
+        assertNull(get(cache, 3));
+        assertEquals("1", get(cache, 1));
+        assertEquals("4", get(cache, 4));
+        assertEquals("5", get(cache, 5));
+        assertEquals(2, cache.evictionCount());
+    }
+
+    @Test
+    public void putExistingKeyMarksItAsRecentlyUsed() {
+        DensityCache<String> cache = new DensityCache<>(2);
+        put(cache, 1, "1");
+        put(cache, 2, "2");
+        put(cache, 1, "1'");
+        put(cache, 3, "3");
+        assertNull(get(cache, 2));
+        assertEquals("1'", get(cache, 1));
+    }
+
+    /**
+     * 三个 key 的理想槽位都是数组的最后一个槽位, 所以探测序列会越过数组末尾回到开头
+     * 淘汰第一个条目后, 后面两个条目必须被前移, 否则它们将无法再被找到
+     */
+    @Test
+    public void evictionInsideAWrappedProbeRunKeepsTheRestReachable() {
+        int maxSize = 3;
+        int lastSlot = DensityCache.tableSizeFor(maxSize) - 1;
+        float[] keys = findKeysWithSlot(maxSize, lastSlot, 3);
+        DensityCache<String> cache = new DensityCache<>(maxSize);
+        put(cache, keys[0], "a");
+        put(cache, keys[1], "b");
+        put(cache, keys[2], "c");
+        put(cache, 1, "d");
+
+        assertNull(get(cache, keys[0]));
+        assertEquals("b", get(cache, keys[1]));
+        assertEquals("c", get(cache, keys[2]));
+        assertEquals("d", get(cache, 1));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void staleEntryInsideAWrappedProbeRunIsRemovedOnGet() {
+        int maxSize = 3;
+        int lastSlot = DensityCache.tableSizeFor(maxSize) - 1;
+        float[] keys = findKeysWithSlot(maxSize, lastSlot, 3);
+        DensityCache<String> cache = new DensityCache<>(maxSize);
+        put(cache, keys[0], "a");
+        cache.setVersion(1);
+        put(cache, keys[1], "b");
+        put(cache, keys[2], "c");
+
+        assertNull(get(cache, keys[0]));
+        assertEquals(2, cache.size());
+        assertEquals("b", get(cache, keys[1]));
+        assertEquals("c", get(cache, keys[2]));
+    }
+
+    @Test
+    public void versionMismatchIsAMiss() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        put(cache, 360, "v0");
+        assertEquals("v0", get(cache, 360));
+
+        cache.setVersion(1);
+        assertEquals(1, cache.version());
+        assertNull(get(cache, 360));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0, cache.size());
+
+        put(cache, 360, "v1");
+        assertEquals("v1", get(cache, 360));
+    }
+
+    @Test
+    public void putRefreshesTheVersionOfAnExistingEntry() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        put(cache, 360, "v0");
+        cache.setVersion(1);
+        put(cache, 360, "v1");
+        assertEquals("v1", get(cache, 360));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shrinkingWhileFullKeepsTheMostRecentlyUsedEntries() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        for (int i = 0; i < 4; i++) {
+            put(cache, i, String.valueOf(i));
+        }
+        //从旧到新: 1、2、3、0
+        get(cache, 0);
+        cache.resize(2);
+
+        assertEquals(2, cache.maxSize());
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.evictionCount());
+        assertNull(get(cache, 1));
+        assertNull(get(cache, 2));
+
+        //LRU 的顺序在缩容后保持不变, 3 仍然比 0 更旧
+        put(cache, 4, "4");
+        assertNull(get(cache, 3));
+        assertEquals("0", get(cache, 0));
+        assertEquals("4", get(cache, 4));
+    }
+
+    @Test
+    public void growingWhileFullKeepsEveryEntry() {
+        DensityCache<String> cache = new DensityCache<>(3);
+        for (int i = 0; i < 3; i++) {
+            put(cache, i, String.valueOf(i));
+        }
+        cache.resize(10);
+        for (int i = 3; i < 10; i++) {
+            put(cache, i, String.valueOf(i));
+        }
+        assertEquals(0, cache.evictionCount());
+        assertEquals(10, cache.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(String.valueOf(i), get(cache, i));
+        }
+    }
+
+    @Test
+    public void resizeKeepsTheVersionOfEachEntry() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        put(cache, 1, "old");
+        cache.setVersion(1);
+        put(cache, 2, "new");
+        cache.resize(8);
+
+        assertNull(get(cache, 1));
+        assertEquals("new", get(cache, 2));
+    }
+
+    @Test
+    public void clearRemovesEntriesButKeepsStats() {
+        DensityCache<String> cache = new DensityCache<>(4);
+        put(cache, 1, "1");
+        get(cache, 1);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertNull(get(cache, 1));
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        put(cache, 1, "1");
+        assertEquals("1", get(cache, 1));
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        try {
+            new DensityCache<String>(0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        DensityCache<String> cache = new DensityCache<>(1);
+        try {
+            cache.resize(-1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            put(cache, 1, null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    /**
+     * 随机的读写和扩缩容, 结果必须与按访问顺序排列的 {@link LinkedHashMap} 完全一致
+     * key 的范围很小而容量也很小, 所以会频繁发生碰撞、淘汰和删除时的前移
+     */
+    @Test
+    public void randomOperationsMatchAnAccessOrderedLinkedHashMap() {
+        Random random = new Random(20181017);
+        int maxSize = 8;
+        DensityCache<Integer> cache = new DensityCache<>(maxSize);
+        LinkedHashMap<Integer, Integer> model = new LinkedHashMap<>(16, 0.75f, true);
+        for (int i = 0; i < 200000; i++) {
+            int key = random.nextInt(32);
+            int op = random.nextInt(100);
+            if (op < 50) {
+                assertEquals("get " + key + " at " + i, model.get(key), get(cache, key));
+            } else if (op < 99) {
+                if (!model.containsKey(key) && model.size() >= maxSize) {
+                    removeEldest(model, 1);
+                }
+                model.put(key, i);
+                put(cache, key, i);
+            } else {
+                maxSize = 1 + random.nextInt(16);
+                cache.resize(maxSize);
+                removeEldest(model, model.size() - maxSize);
+            }
+            assertEquals(model.size(), cache.size());
+        }
+        for (Map.Entry<Integer, Integer> entry : new ArrayList<>(model.entrySet())) {
+            assertEquals(entry.getValue(), get(cache, entry.getKey()));
+        }
+    }
+
+    private static void removeEldest(LinkedHashMap<Integer, Integer> model, int count) {
+        Iterator<Integer> iterator = model.keySet().iterator();
+        for (int i = 0; i < count; i++) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 找出 {@code count} 个在容量为 {@code maxSize} 的缓存中理想槽位都是 {@code slot} 的设计图尺寸
+     */
+    private static float[] findKeysWithSlot(int maxSize, int slot, int count) {
+        int mask = DensityCache.tableSizeFor(maxSize) - 1;
+        List<Float> keys = new ArrayList<>();
+        for (int i = 1; keys.size() < count; i++) {
+            float sizeInDp = i;
+            if ((hash(sizeInDp) & mask) == slot) {
+                keys.add(sizeInDp);
+            }
+        }
+        float[] result = new float[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = keys.get(i);
+        }
+        return result;
+    }
+
+    private static int hash(float sizeInDp) {
+        return DensityCache.hash(Float.floatToIntBits(sizeInDp), Float.floatToIntBits(SUBUNITS_DESIGN_SIZE)
+                , SCREEN_WIDTH, SCREEN_HEIGHT, FLAGS, Float.floatToIntBits(FONT_SCALE));
+    }
+
+    private static <V> V get(DensityCache<V> cache, float sizeInDp) {
+        return cache.get(sizeInDp, SUBUNITS_DESIGN_SIZE, SCREEN_WIDTH, SCREEN_HEIGHT, FLAGS, FONT_SCALE);
+    }
+
+    private static <V> void put(DensityCache<V> cache, float sizeInDp, V value) {
+        cache.put(sizeInDp, SUBUNITS_DESIGN_SIZE, SCREEN_WIDTH, SCREEN_HEIGHT, FLAGS, FONT_SCALE, value);
+    }
+}
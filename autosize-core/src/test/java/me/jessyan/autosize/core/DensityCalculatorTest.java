@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link DensityCalculator} 的单元测试, 期望值都是手算出来的, 包括 densityDpi 和以 dp 为单位的屏幕宽高向下取整的情况
+ */
+public class DensityCalculatorTest {
+    private static final float DELTA = 1e-5f;
+
+    @Test
+    public void baseOnWidth() {
+        DensityInfo info = DensityCalculator.calculate(360, 360, true, 1080, 1920, 1);
+        assertEquals(3f, info.getDensity(), DELTA);
+        assertEquals(480, info.getDensityDpi());
+        assertEquals(3f, info.getScaledDensity(), DELTA);
+        assertEquals(3f, info.getXdpi(), DELTA);
+        assertEquals(360, info.getScreenWidthDp());
+        assertEquals(640, info.getScreenHeightDp());
+    }
+
+    @Test
+    public void baseOnHeight() {
+        DensityInfo info = DensityCalculator.calculate(640, 640, false, 1080, 1920, 1);
+        assertEquals(3f, info.getDensity(), DELTA);
+        assertEquals(480, info.getDensityDpi());
+        assertEquals(360, info.getScreenWidthDp());
+        assertEquals(640, info.getScreenHeightDp());
+    }
+
+    /**
+     * 1080 / 375 = 2.88, densityDpi 为 460.8, 需要向下取整
+     */
+    @Test
+    public void densityDpiIsTruncated() {
+        DensityInfo info = DensityCalculator.calculate(375, 375, true, 1080, 2160, 1);
+        assertEquals(2.88f, info.getDensity(), DELTA);
+        assertEquals(460, info.getDensityDpi());
+        assertEquals(375, info.getScreenWidthDp());
+        assertEquals(750, info.getScreenHeightDp());
+    }
+
+    /**
+     * 以高度为基准时, 宽度换算为 dp 后是 374.77, 需要向下取整
+     */
+    @Test
+    public void screenSizeDpIsTruncated() {
+        DensityInfo info = DensityCalculator.calculate(812, 812, false, 1080, 2340, 1);
+        assertEquals(2340f / 812f, info.getDensity(), DELTA);
+        assertEquals(461, info.getDensityDpi());
+        assertEquals(374, info.getScreenWidthDp());
+        assertEquals(812, info.getScreenHeightDp());
+    }
+
+    @Test
+    public void fontScaleOnlyAffectsScaledDensity() {
+        DensityInfo info = DensityCalculator.calculate(375, 375, true, 1080, 2160, 1.15f);
+        assertEquals(2.88f, info.getDensity(), DELTA);
+        assertEquals(2.88f * 1.15f, info.getScaledDensity(), DELTA);
+        assertEquals(460, info.getDensityDpi());
+    }
+
+    /**
+     * 副单位使用独立的设计图尺寸 (通常是 px), 只影响 xdpi
+     */
+    @Test
+    public void subunitsDesignSizeOnlyAffectsXdpi() {
+        DensityInfo info = DensityCalculator.calculate(360, 1080, true, 1080, 1920, 1);
+        assertEquals(3f, info.getDensity(), DELTA);
+        assertEquals(1f, info.getXdpi(), DELTA);
+
+        info = DensityCalculator.calculate(640, 1920, false, 1080, 1920, 1);
+        assertEquals(3f, info.getDensity(), DELTA);
+        assertEquals(1f, info.getXdpi(), DELTA);
+    }
+
+    @Test
+    public void specOverloadMatchesThePrimitiveOverload() {
+        DensityInfo expected = DensityCalculator.calculate(375, 750, false, 1440, 3040, 1.3f);
+        DensityInfo actual = DensityCalculator.calculate(new DesignSpec(375, 750, false), new ScreenSpec(1440, 3040, 1.3f));
+        assertEquals(expected, actual);
+        assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    @Test
+    public void designSpecFallsBackToSizeInDpForSubunits() {
+        assertEquals(360f, new DesignSpec(360, 0, true).getSubunitsDesignSize(), 0);
+        assertEquals(360f, new DesignSpec(360, true).getSubunitsDesignSize(), 0);
+        assertEquals(DensityCalculator.calculate(360, 360, true, 1080, 1920, 1)
+                , DensityCalculator.calculate(new DesignSpec(360, 0, true), new ScreenSpec(1080, 1920, 1)));
+    }
+
+    @Test
+    public void specsRejectInvalidArguments() {
+        try {
+            new DesignSpec(0, true);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new DesignSpec(Float.NaN, true);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new ScreenSpec(0, 1920, 1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new ScreenSpec(1080, 1920, 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            DensityCalculator.calculate(null, new ScreenSpec(1080, 1920, 1));
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+}
@@ -17,8 +17,13 @@ package me.jessyan.autosize;
 
 import android.app.Activity;
 import android.app.Application;
+import android.os.Build;
 import android.os.Bundle;
 
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
 import static me.jessyan.autosize.AutoSizeConfig.DEPENDENCY_ANDROIDX;
 import static me.jessyan.autosize.AutoSizeConfig.DEPENDENCY_SUPPORT;
 
@@ -27,6 +32,10 @@ import static me.jessyan.autosize.AutoSizeConfig.DEPENDENCY_SUPPORT;
  * {@link ActivityLifecycleCallbacksImpl} 可用来代替在 BaseActivity 中加入适配代码的传统方式
  * {@link ActivityLifecycleCallbacksImpl} 这种方案类似于 AOP, 面向接口, 侵入性低, 方便统一管理, 扩展性强, 并且也支持适配三方库的 {@link Activity}
  * <p>
+ * 同时会以弱引用记录所有还没有被销毁的 {@link Activity}, 按照最后一次 onActivityStarted 的顺序排列
+ * 供 {@link ConfigEditor#commit()} 在配置修改后重新适配, 开启 {@link AutoSizeConfig#isCustomFragment()} 时还会重新适配其中已经添加的 Fragment
+ * 只会在主线程中被访问
+ * <p>
  * Created by JessYan on 2018/8/8 14:32
  * <a href="mailto:jess.yan.effort@gmail.com">Contact me</a>
  * <a href="https://github.com/JessYanCoding">Follow me</a>
@@ -42,6 +51,10 @@ public class ActivityLifecycleCallbacksImpl implements Application.ActivityLifec
      */
     private FragmentLifecycleCallbacksImpl mFragmentLifecycleCallbacks;
     private FragmentLifecycleCallbacksImplToAndroidx mFragmentLifecycleCallbacksToAndroidx;
+    /**
+     * 所有还没有被销毁的 {@link Activity}, 最后一个为最近一次 onActivityStarted 的 {@link Activity}
+     */
+    private final List<WeakReference<Activity>> mActivities = new ArrayList<>();
 
     public ActivityLifecycleCallbacksImpl(AutoAdaptStrategy autoAdaptStrategy) {
         if (DEPENDENCY_ANDROIDX) {
@@ -55,13 +68,15 @@ public class ActivityLifecycleCallbacksImpl implements Application.ActivityLifec
     @Override
     public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
         if (AutoSizeConfig.getInstance().isCustomFragment()) {
+            //由 FragmentLifecycleCallbacks 自己注册, 这里不需要把它们当作父类传递, 只依赖其中一个 Fragment 库时, 在 JVM 上 (例如单元测试) 也不需要加载另一个库
             if (mFragmentLifecycleCallbacksToAndroidx != null && activity instanceof androidx.fragment.app.FragmentActivity) {
-                ((androidx.fragment.app.FragmentActivity) activity).getSupportFragmentManager().registerFragmentLifecycleCallbacks(mFragmentLifecycleCallbacksToAndroidx, true);
+                mFragmentLifecycleCallbacksToAndroidx.register((androidx.fragment.app.FragmentActivity) activity);
             } else if (mFragmentLifecycleCallbacks != null && activity instanceof android.support.v4.app.FragmentActivity) {
-                ((android.support.v4.app.FragmentActivity) activity).getSupportFragmentManager().registerFragmentLifecycleCallbacks(mFragmentLifecycleCallbacks, true);
+                mFragmentLifecycleCallbacks.register((android.support.v4.app.FragmentActivity) activity);
             }
         }
 
+        moveToLast(activity);
         //Activity 中的 setContentView(View) 一定要在 super.onCreate(Bundle); 之后执行
         if (mAutoAdaptStrategy != null) {
             mAutoAdaptStrategy.applyAdapt(activity, activity);
@@ -70,6 +85,7 @@ public class ActivityLifecycleCallbacksImpl implements Application.ActivityLifec
 
     @Override
     public void onActivityStarted(Activity activity) {
+        moveToLast(activity);
         if (mAutoAdaptStrategy != null) {
             mAutoAdaptStrategy.applyAdapt(activity, activity);
         }
@@ -97,7 +113,7 @@ public class ActivityLifecycleCallbacksImpl implements Application.ActivityLifec
 
     @Override
     public void onActivityDestroyed(Activity activity) {
-
+        remove(activity);
     }
 
     /**
@@ -113,4 +129,74 @@ public class ActivityLifecycleCallbacksImpl implements Application.ActivityLifec
             mFragmentLifecycleCallbacks.setAutoAdaptStrategy(autoAdaptStrategy);
         }
     }
+
+    /**
+     * 使用当前的配置重新适配所有还没有被销毁的 {@link Activity}, 每个 {@link Activity} 只会适配一次
+     * 按照最后一次 onActivityStarted 的顺序适配, 所以 Application 的 {@link android.content.res.Resources} 最终会是最上层 {@link Activity} 的适配结果
+     * 开启 {@link AutoSizeConfig#isCustomFragment()} 时, 每个 {@link Activity} 适配之后还会重新适配其中已经添加的 Fragment
+     * 这样实现了 {@link me.jessyan.autosize.internal.CustomAdapt} 的 Fragment 仍然使用自己的适配参数, 不会被 {@link Activity} 的适配参数覆盖
+     * 只能在主线程中调用
+     */
+    void readaptActivities() {
+        if (mAutoAdaptStrategy == null) {
+            return;
+        }
+        boolean isCustomFragment = AutoSizeConfig.getInstance().isCustomFragment();
+        //复制一份, 避免在适配的回调中启动或销毁 Activity 导致列表被修改
+        List<WeakReference<Activity>> activities = new ArrayList<>(mActivities);
+        for (WeakReference<Activity> reference : activities) {
+            Activity activity = reference.get();
+            if (activity == null || activity.isFinishing()
+                    || (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && activity.isDestroyed())) {
+                continue;
+            }
+            mAutoAdaptStrategy.applyAdapt(activity, activity);
+            if (isCustomFragment) {
+                readaptFragments(activity);
+            }
+        }
+    }
+
+    private void readaptFragments(Activity activity) {
+        if (mFragmentLifecycleCallbacksToAndroidx != null && activity instanceof androidx.fragment.app.FragmentActivity) {
+            mFragmentLifecycleCallbacksToAndroidx.readaptFragments((androidx.fragment.app.FragmentActivity) activity);
+        } else if (mFragmentLifecycleCallbacks != null && activity instanceof android.support.v4.app.FragmentActivity) {
+            mFragmentLifecycleCallbacks.readaptFragments((android.support.v4.app.FragmentActivity) activity);
+        }
+    }
+
+    /**
+     * 将 {@code activity} 移到最后, 每次 onActivityCreated、onActivityStarted 都会调用
+     * 已经记录过的 {@link Activity} 会复用之前的 {@link WeakReference}, 稳定状态下不会产生任何对象
+     */
+    private void moveToLast(Activity activity) {
+        int last = mActivities.size() - 1;
+        if (last >= 0 && mActivities.get(last).get() == activity) {
+            return;
+        }
+        WeakReference<Activity> reference = null;
+        for (int i = last; i >= 0; i--) {
+            WeakReference<Activity> candidate = mActivities.get(i);
+            Activity candidateActivity = candidate.get();
+            if (candidateActivity == null || candidateActivity == activity) {
+                mActivities.remove(i);
+                if (candidateActivity != null) {
+                    reference = candidate;
+                }
+            }
+        }
+        mActivities.add(reference == null ? new WeakReference<>(activity) : reference);
+    }
+
+    /**
+     * 删除 {@code activity}, 顺便清理已经被回收的 {@link Activity}
+     */
+    private void remove(Activity activity) {
+        for (int i = mActivities.size() - 1; i >= 0; i--) {
+            Activity candidate = mActivities.get(i).get();
+            if (candidate == null || candidate == activity) {
+                mActivities.remove(i);
+            }
+        }
+    }
 }
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import me.jessyan.autosize.annotation.AdaptRegistry;
+import me.jessyan.autosize.annotation.AdaptSpec;
+import me.jessyan.autosize.external.ExternalAdaptInfo;
+import me.jessyan.autosize.external.ExternalAdaptManager;
+import me.jessyan.autosize.internal.CancelAdapt;
+import me.jessyan.autosize.internal.CustomAdapt;
+
+/**
+ * ================================================
+ * 判断并缓存每个 target 的 {@link Class} 应该使用哪种适配方式, 供 {@link DefaultAutoAdaptStrategy} 使用
+ * 一个类是否实现了 {@link CancelAdapt}、{@link CustomAdapt}, 是否被注解声明过都是不会变的
+ * 只有 {@link ExternalAdaptManager} 中的规则改变或注册了新的 {@link AdaptRegistry} 时, 才需要重新判断
+ * <p>
+ * 所有依赖都通过参数传入, 不依赖 {@link AutoSizeConfig}, 只允许在主线程中使用
+ * ================================================
+ */
+final class AdaptDecisionResolver {
+    static final int TYPE_CANCEL = 0;
+    static final int TYPE_EXTERNAL = 1;
+    static final int TYPE_CUSTOM = 2;
+    static final int TYPE_GLOBAL = 3;
+    static final int TYPE_ANNOTATION = 4;
+    private static final Decision CANCEL = new Decision(TYPE_CANCEL, null);
+    private static final Decision CUSTOM = new Decision(TYPE_CUSTOM, null);
+    private static final Decision GLOBAL = new Decision(TYPE_GLOBAL, null);
+    /**
+     * 每个 target 的 {@link Class} 对应的适配方式, {@link Class} 没有重写 equals 和 hashCode, 所以查找时只比较实例
+     */
+    private final Map<Class<?>, Decision> mDecisions = new HashMap<>();
+    /**
+     * {@link #mDecisions} 是基于哪个版本的 {@link ExternalAdaptManager} 规则计算出来的
+     */
+    private int mExternalAdaptVersion = -1;
+    /**
+     * {@link #mDecisions} 是基于哪些 {@link AdaptRegistry} 计算出来的
+     */
+    private AdaptRegistry[] mAdaptRegistries;
+
+    /**
+     * 返回 {@code targetClass} 的适配方式, 同一个类只会完整判断一次, 之后只需要查找一次 {@link #mDecisions}
+     *
+     * @param targetClass          需要屏幕适配的对象的 {@link Class}
+     * @param externalAdaptManager {@link ExternalAdaptManager}
+     * @param registries           所有已注册的 {@link AdaptRegistry}
+     * @return {@link Decision}
+     */
+    Decision resolve(Class<?> targetClass, ExternalAdaptManager externalAdaptManager, AdaptRegistry[] registries) {
+        int version = externalAdaptManager.getVersion();
+        if (version != mExternalAdaptVersion || registries != mAdaptRegistries) {
+            mDecisions.clear();
+            mExternalAdaptVersion = version;
+            mAdaptRegistries = registries;
+        }
+        Decision decision = mDecisions.get(targetClass);
+        if (decision == null) {
+            decision = createDecision(targetClass, externalAdaptManager, registries);
+            mDecisions.put(targetClass, decision);
+        }
+        return decision;
+    }
+
+    private Decision createDecision(Class<?> targetClass, ExternalAdaptManager externalAdaptManager, AdaptRegistry[] registries) {
+        //检查是否开启了外部三方库的适配模式, 只要不主动调用 ExternalAdaptManager 的方法, 下面的代码就不会执行
+        if (externalAdaptManager.isRun()) {
+            if (externalAdaptManager.isCancelAdapt(targetClass)) {
+                return CANCEL;
+            }
+            ExternalAdaptInfo info = externalAdaptManager.getExternalAdaptInfoOfActivity(targetClass);
+            if (info != null) {
+                return new Decision(TYPE_EXTERNAL, info);
+            }
+        }
+
+        //从 target 自己开始沿着父类逐级向上查找, 越具体的类优先级越高, 所以父类上的注解不会覆盖子类自己实现的接口
+        //同一级中编译期通过 @AutoSizeTarget 和 @CancelAutoSize 注解声明的适配参数优先于接口, 没有注册 AdaptRegistry 时不会查找注解
+        for (Class<?> clazz = targetClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+            AdaptSpec spec = findAdaptSpec(clazz, registries);
+            if (spec != null) {
+                return spec.isCancel() ? CANCEL : new Decision(TYPE_ANNOTATION
+                        , new ExternalAdaptInfo(spec.isBaseOnWidth(), spec.getSizeInDp()));
+            }
+
+            //如果 target 实现 CancelAdapt 接口表示放弃适配, 所有的适配效果都将失效
+            if (declaresInterface(clazz, CancelAdapt.class)) {
+                return CANCEL;
+            }
+
+            //如果 target 实现 CustomAdapt 接口表示该 target 想自定义一些用于适配的参数, 从而改变最终的适配效果
+            if (declaresInterface(clazz, CustomAdapt.class)) {
+                return CUSTOM;
+            }
+        }
+        return GLOBAL;
+    }
+
+    /**
+     * 查找 {@code clazz} 自己的注解声明的适配参数, 不包括父类, 多个 {@link AdaptRegistry} 按照注册的顺序查找
+     *
+     * @param clazz      需要查找的 {@link Class}
+     * @param registries 所有已注册的 {@link AdaptRegistry}
+     * @return 没有找到时返回 {@code null}
+     */
+    private static AdaptSpec findAdaptSpec(Class<?> clazz, AdaptRegistry[] registries) {
+        for (AdaptRegistry registry : registries) {
+            AdaptSpec spec = registry.find(clazz);
+            if (spec != null) {
+                return spec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * {@code clazz} 自己声明的接口中 (不包括父类实现的接口) 是否有 {@code type} 或它的子接口
+     */
+    private static boolean declaresInterface(Class<?> clazz, Class<?> type) {
+        for (Class<?> declared : clazz.getInterfaces()) {
+            if (type.isAssignableFrom(declared)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 某个 {@link Class} 的适配方式
+     */
+    static final class Decision {
+        final int type;
+        final ExternalAdaptInfo externalAdaptInfo;
+
+        Decision(int type, ExternalAdaptInfo externalAdaptInfo) {
+            this.type = type;
+            this.externalAdaptInfo = externalAdaptInfo;
+        }
+    }
+}
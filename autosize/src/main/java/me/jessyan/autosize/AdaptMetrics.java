@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+import android.content.res.Resources;
+
+/**
+ * ================================================
+ * 适配的统计数据, 可以是某个 {@link Activity} 或 Fragment 的 {@link Class}, 也可以是所有适配的汇总
+ * 通过 {@link AutoSize#getAdaptMetrics()} 获取, 需要先调用 {@link AutoSizeConfig#setMetricsEnabled(boolean)} 开启统计
+ * ================================================
+ */
+public final class AdaptMetrics {
+    private final long adaptCount;
+    private final long cacheHitCount;
+    private final long cacheMissCount;
+    private final long writeCount;
+    private final long skippedWriteCount;
+    private final long cancelAdaptCount;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    AdaptMetrics(long adaptCount, long cacheHitCount, long cacheMissCount, long writeCount, long skippedWriteCount
+            , long cancelAdaptCount, long totalNanos, long maxNanos) {
+        this.adaptCount = adaptCount;
+        this.cacheHitCount = cacheHitCount;
+        this.cacheMissCount = cacheMissCount;
+        this.writeCount = writeCount;
+        this.skippedWriteCount = skippedWriteCount;
+        this.cancelAdaptCount = cancelAdaptCount;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+    }
+
+    /**
+     * {@link AutoAdaptStrategy#applyAdapt(Object, Activity)} 被调用的次数
+     */
+    public long getAdaptCount() {
+        return adaptCount;
+    }
+
+    /**
+     * 适配结果命中缓存的次数
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    /**
+     * 适配结果未命中缓存 (需要重新计算) 的次数
+     */
+    public long getCacheMissCount() {
+        return cacheMissCount;
+    }
+
+    /**
+     * 实际赋值的次数, 每个 {@link Resources} 计一次
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    /**
+     * 因为 {@link Resources} 已经处于目标状态而被跳过的赋值次数, 每个 {@link Resources} 计一次
+     */
+    public long getSkippedWriteCount() {
+        return skippedWriteCount;
+    }
+
+    /**
+     * 取消适配的次数
+     */
+    public long getCancelAdaptCount() {
+        return cancelAdaptCount;
+    }
+
+    /**
+     * {@link AutoAdaptStrategy#applyAdapt(Object, Activity)} 的累计耗时, 单位 ns
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * {@link AutoAdaptStrategy#applyAdapt(Object, Activity)} 单次的最大耗时, 单位 ns
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * {@link AutoAdaptStrategy#applyAdapt(Object, Activity)} 单次的平均耗时, 单位 ns, 还没有适配过时返回 {@code 0}
+     */
+    public long getAverageNanos() {
+        return adaptCount == 0 ? 0 : totalNanos / adaptCount;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptMetrics{" +
+                "adaptCount=" + adaptCount +
+                ", cacheHitCount=" + cacheHitCount +
+                ", cacheMissCount=" + cacheMissCount +
+                ", writeCount=" + writeCount +
+                ", skippedWriteCount=" + skippedWriteCount +
+                ", cancelAdaptCount=" + cancelAdaptCount +
+                ", totalNanos=" + totalNanos +
+                ", maxNanos=" + maxNanos +
+                '}';
+    }
+}
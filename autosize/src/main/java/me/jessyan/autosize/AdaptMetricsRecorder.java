@@ -0,0 +1,201 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ================================================
+ * 收集适配的统计数据, 由 {@link WrapperAutoAdaptStrategy} 标记每次适配的开始和结束, {@link AutoSizeEngine} 记录适配过程中的事件
+ * 在一次适配过程中发生的事件, 除了计入汇总数据, 还会计入当前正在适配的 target 的 {@link Class}
+ * <p>
+ * 嵌套的适配 (如在 {@link Activity} 的适配过程中适配 Fragment) 会分别计入各自的 {@link Class}, 但汇总数据只计入最外层的适配, 避免耗时被重复计算
+ * <p>
+ * 默认关闭, 关闭时除了 {@link #snapshot()} 和 {@link #reset()} 以外的方法都会立即返回
+ * 每个 {@link Class} 的计数器只会在第一次适配时创建一次, 之后记录数据不会产生任何对象
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class AdaptMetricsRecorder {
+    /**
+     * 关闭时 {@link #begin(Class)} 返回的标记, {@link #end(Object, long)} 收到它时不做任何处理
+     */
+    private static final Object NOT_RECORDED = new Object();
+    private final Counter mTotal = new Counter();
+    /**
+     * {@link Class} 没有重写 equals 和 hashCode, 所以查找时只比较实例
+     */
+    private final Map<Class<?>, Counter> mTargets = new HashMap<>();
+    /**
+     * 当前正在适配的 target 的计数器, 不在适配过程中时为 {@code null}
+     */
+    private Counter mCurrent;
+    /**
+     * 正在进行中的适配的嵌套层数, 只有最外层的适配结束时才计入汇总数据
+     */
+    private int mDepth;
+    private boolean isEnabled;
+
+    boolean isEnabled() {
+        return isEnabled;
+    }
+
+    void setEnabled(boolean enabled) {
+        isEnabled = enabled;
+    }
+
+    /**
+     * 标记一次适配的开始
+     *
+     * @param targetClass 需要屏幕适配的对象的 {@link Class}
+     * @return 开始之前正在适配的计数器, 需要原样传给 {@link #end(Object, long)}, 以支持嵌套的适配
+     */
+    Object begin(Class<?> targetClass) {
+        if (!isEnabled) {
+            return NOT_RECORDED;
+        }
+        Counter previous = mCurrent;
+        Counter counter = mTargets.get(targetClass);
+        if (counter == null) {
+            counter = new Counter();
+            mTargets.put(targetClass, counter);
+        }
+        mCurrent = counter;
+        mDepth++;
+        return previous;
+    }
+
+    /**
+     * 标记一次适配的结束, 开始时已经开启的话, 即使之后被关闭也会记录, 保证嵌套层数正确
+     *
+     * @param token {@link #begin(Class)} 的返回值
+     * @param nanos 本次适配的耗时
+     */
+    void end(Object token, long nanos) {
+        if (token == NOT_RECORDED) {
+            return;
+        }
+        Counter counter = mCurrent;
+        mCurrent = (Counter) token;
+        if (counter != null) {
+            counter.recordAdapt(nanos);
+        }
+        if (--mDepth == 0) {
+            mTotal.recordAdapt(nanos);
+        }
+    }
+
+    void onCacheHit() {
+        if (isEnabled) {
+            mTotal.cacheHitCount++;
+            if (mCurrent != null) {
+                mCurrent.cacheHitCount++;
+            }
+        }
+    }
+
+    void onCacheMiss() {
+        if (isEnabled) {
+            mTotal.cacheMissCount++;
+            if (mCurrent != null) {
+                mCurrent.cacheMissCount++;
+            }
+        }
+    }
+
+    void onWrite() {
+        if (isEnabled) {
+            mTotal.writeCount++;
+            if (mCurrent != null) {
+                mCurrent.writeCount++;
+            }
+        }
+    }
+
+    void onWriteSkipped() {
+        if (isEnabled) {
+            mTotal.skippedWriteCount++;
+            if (mCurrent != null) {
+                mCurrent.skippedWriteCount++;
+            }
+        }
+    }
+
+    void onCancelAdapt() {
+        if (isEnabled) {
+            mTotal.cancelAdaptCount++;
+            if (mCurrent != null) {
+                mCurrent.cancelAdaptCount++;
+            }
+        }
+    }
+
+    AdaptMetricsSnapshot snapshot() {
+        Map<Class<?>, AdaptMetrics> targets = new HashMap<>(mTargets.size() * 4 / 3 + 1);
+        for (Map.Entry<Class<?>, Counter> entry : mTargets.entrySet()) {
+            targets.put(entry.getKey(), entry.getValue().toMetrics());
+        }
+        return new AdaptMetricsSnapshot(mTotal.toMetrics(), Collections.unmodifiableMap(targets));
+    }
+
+    /**
+     * 清空所有统计数据, 不会修改嵌套层数, 正在进行中的适配结束时仍然会正常记录
+     */
+    void reset() {
+        mTotal.reset();
+        mTargets.clear();
+        mCurrent = null;
+    }
+
+    private static final class Counter {
+        long adaptCount;
+        long cacheHitCount;
+        long cacheMissCount;
+        long writeCount;
+        long skippedWriteCount;
+        long cancelAdaptCount;
+        long totalNanos;
+        long maxNanos;
+
+        void recordAdapt(long nanos) {
+            adaptCount++;
+            totalNanos += nanos;
+            if (nanos > maxNanos) {
+                maxNanos = nanos;
+            }
+        }
+
+        AdaptMetrics toMetrics() {
+            return new AdaptMetrics(adaptCount, cacheHitCount, cacheMissCount, writeCount, skippedWriteCount
+                    , cancelAdaptCount, totalNanos, maxNanos);
+        }
+
+        void reset() {
+            adaptCount = 0;
+            cacheHitCount = 0;
+            cacheMissCount = 0;
+            writeCount = 0;
+            skippedWriteCount = 0;
+            cancelAdaptCount = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+    }
+}
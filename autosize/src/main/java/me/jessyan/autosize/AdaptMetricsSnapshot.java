@@ -0,0 +1,69 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+
+import java.util.Map;
+
+/**
+ * ================================================
+ * 某一时刻所有适配统计数据的快照, 包括汇总数据和每个 {@link Activity}、Fragment 的 {@link Class} 各自的数据
+ * 通过 {@link AutoSize#getAdaptMetrics()} 获取, 可以据此找出哪些页面在适配上花费的时间最多
+ * ================================================
+ */
+public final class AdaptMetricsSnapshot {
+    private final AdaptMetrics total;
+    private final Map<Class<?>, AdaptMetrics> targets;
+
+    AdaptMetricsSnapshot(AdaptMetrics total, Map<Class<?>, AdaptMetrics> targets) {
+        this.total = total;
+        this.targets = targets;
+    }
+
+    /**
+     * 所有适配的汇总数据, 包括不是由 {@link AutoAdaptStrategy} 发起的适配 (如 {@link AutoSizeCompat})
+     * 嵌套的适配 (如在 {@link Activity} 的适配过程中适配 Fragment) 只计入最外层的一次, 缓存命中、赋值等事件仍然全部计入
+     */
+    public AdaptMetrics getTotal() {
+        return total;
+    }
+
+    /**
+     * 每个 {@link Activity}、Fragment 的 {@link Class} 各自的数据, 不可修改
+     */
+    public Map<Class<?>, AdaptMetrics> getTargets() {
+        return targets;
+    }
+
+    /**
+     * 某个 {@link Activity}、Fragment 的 {@link Class} 的数据
+     *
+     * @param targetClass {@link Activity}、Fragment 的 {@link Class}
+     * @return 还没有适配过时返回 {@code null}
+     */
+    public AdaptMetrics getTarget(Class<?> targetClass) {
+        return targets.get(targetClass);
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptMetricsSnapshot{" +
+                "total=" + total +
+                ", targets=" + targets +
+                '}';
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import me.jessyan.autosize.unit.Subunits;
+import me.jessyan.autosize.unit.UnitsManager;
+
+/**
+ * ================================================
+ * 记录每个 {@link Resources} 最后一次被赋值的 {@link DisplayMetricsInfo}
+ * <p>
+ * {@link ActivityLifecycleCallbacksImpl} 在 onActivityCreated 和 onActivityStarted 中都会进行适配, 每次回到某个页面都会重新赋值
+ * 但大部分情况下这些值根本没有变化, 所以赋值之前先检查 {@link Resources} 上次使用的 {@link DisplayMetricsInfo} 是否还是同一个实例,
+ * 并且 {@link DisplayMetrics} 和 {@link Configuration} 中的值没有被系统重置, 满足条件则跳过所有赋值
+ * 检查的 {@link DisplayMetrics} 包括 {@link ResourcesPatcher} 提供的 {@link DisplayMetrics} (如 Miui 的 mTmpMetrics), 它们被重置时同样需要重新赋值
+ * <p>
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class AdaptStateTracker {
+    /**
+     * {@link Resources} 没有重写 equals 和 hashCode, 所以这里以实例为 key
+     */
+    private final Map<Resources, DisplayMetricsInfo> mAppliedInfos = new WeakHashMap<>();
+    private long mWriteCount;
+    private long mSkipCount;
+
+    /**
+     * {@code resources} 当前的状态是否已经是 {@code info} 的适配结果
+     *
+     * @param resources    {@link Resources}
+     * @param targets      {@code resources} 需要被赋值的对象, 包括 {@link ResourcesPatcher} 提供的 {@link DisplayMetrics}
+     * @param info         即将赋值的 {@link DisplayMetricsInfo}
+     * @param xdpi         按照当前副单位换算后, {@link DisplayMetrics#xdpi} 应该被赋予的值
+     * @param unitsManager {@link UnitsManager}
+     * @return {@code true} 表示无需再次赋值
+     */
+    boolean isApplied(Resources resources, WriteTargetCache.WriteTargets targets, DisplayMetricsInfo info, float xdpi
+            , UnitsManager unitsManager) {
+        if (mAppliedInfos.get(resources) != info) {
+            return false;
+        }
+        //系统在 Configuration 改变等情况下会重置 DisplayMetrics, 所以还需要确认值没有被改动过
+        if (unitsManager.isSupportDP() && unitsManager.isSupportScreenSizeDP()) {
+            Configuration configuration = targets.configuration;
+            if (configuration.screenWidthDp != info.getScreenWidthDp()
+                    || configuration.screenHeightDp != info.getScreenHeightDp()) {
+                return false;
+            }
+        }
+        for (DisplayMetrics displayMetrics : targets.metrics) {
+            if (!isApplied(displayMetrics, info, xdpi, unitsManager)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isApplied(DisplayMetrics displayMetrics, DisplayMetricsInfo info, float xdpi, UnitsManager unitsManager) {
+        if (unitsManager.isSupportDP()
+                && (displayMetrics.density != info.getDensity() || displayMetrics.densityDpi != info.getDensityDpi())) {
+            return false;
+        }
+        if (unitsManager.isSupportSP() && displayMetrics.scaledDensity != info.getScaledDensity()) {
+            return false;
+        }
+        return unitsManager.getSupportSubunits() == Subunits.NONE || displayMetrics.xdpi == xdpi;
+    }
+
+    void markApplied(Resources resources, DisplayMetricsInfo info) {
+        mAppliedInfos.put(resources, info);
+        mWriteCount++;
+    }
+
+    void markSkipped() {
+        mSkipCount++;
+    }
+
+    /**
+     * 清除所有记录, 下次适配时会重新赋值
+     */
+    void clear() {
+        mAppliedInfos.clear();
+    }
+
+    long getWriteCount() {
+        return mWriteCount;
+    }
+
+    long getSkipCount() {
+        return mSkipCount;
+    }
+}
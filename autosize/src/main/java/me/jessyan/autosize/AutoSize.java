@@ -23,16 +23,14 @@ import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.net.Uri;
 import android.util.DisplayMetrics;
-import android.util.SparseArray;
 import android.view.View;
 
-import java.util.Locale;
-
 import me.jessyan.autosize.external.ExternalAdaptInfo;
 import me.jessyan.autosize.external.ExternalAdaptManager;
 import me.jessyan.autosize.internal.CancelAdapt;
 import me.jessyan.autosize.internal.CustomAdapt;
 import me.jessyan.autosize.utils.AutoSizeLog;
+import me.jessyan.autosize.utils.AutoSizeUtils;
 import me.jessyan.autosize.utils.Preconditions;
 
 /**
@@ -50,12 +48,6 @@ import me.jessyan.autosize.utils.Preconditions;
  * ================================================
  */
 public final class AutoSize {
-    private static SparseArray<DisplayMetricsInfo> mCache = new SparseArray<>();
-    private static final int MODE_SHIFT = 30;
-    private static final int MODE_MASK  = 0x3 << MODE_SHIFT;
-    private static final int MODE_ON_WIDTH  = 1 << MODE_SHIFT;
-    private static final int MODE_DEVICE_SIZE  = 2 << MODE_SHIFT;
-
     private AutoSize() {
         throw new IllegalStateException("you can't instantiate me!");
     }
@@ -80,12 +72,37 @@ public final class AutoSize {
     public static void checkAndInit(Application application) {
         if (!checkInit()) {
             AutoSizeConfig.getInstance()
-                    .setLog(true)
+                    .setLog(AutoSizeUtils.isDebuggable(application))
                     .init(application)
                     .setUseDeviceSize(false);
         }
     }
 
+    /**
+     * 延迟初始化 AndroidAutoSize, 适用于对冷启动耗时敏感的项目, 在 {@link Application#onCreate()} 中调用即可
+     * 初始化时只会读取系统的初始 DisplayMetrics 并注册回调, 读取 AndroidManifest 中的设计图尺寸、获取屏幕尺寸、获取状态栏高度、检测 Miui 系统
+     * 这些耗时的步骤都会推迟到第一次适配时才同步执行, 所以也不会出现因为 MetaData 读取过慢而使用默认设计图尺寸的问题
+     * 各个阶段的耗时可以通过 {@link AutoSizeConfig#getInitTimings()} 获取
+     * <p>
+     * 使用前需要在 AndroidManifest 中移除 {@link InitProvider}, 否则 {@link InitProvider} 会先完成普通的初始化, 此方法将不再生效
+     * <pre>
+     * <provider
+     *     android:name="me.jessyan.autosize.InitProvider"
+     *     android:authorities="${applicationId}.autosize-init-provider"
+     *     tools:node="remove"/>
+     * </pre>
+     *
+     * @param application {@link Application}
+     */
+    public static void initDeferred(Application application) {
+        if (!checkInit()) {
+            AutoSizeConfig.getInstance()
+                    .setLog(AutoSizeUtils.isDebuggable(application))
+                    .initDeferred(application, true, null)
+                    .setUseDeviceSize(false);
+        }
+    }
+
     /**
      * 使用 AndroidAutoSize 初始化时设置的默认适配参数进行适配 (AndroidManifest 的 Meta 属性)
      *
@@ -107,16 +124,8 @@ public final class AutoSize {
      */
     public static void autoConvertDensityOfCustomAdapt(Activity activity, CustomAdapt customAdapt) {
         Preconditions.checkNotNull(customAdapt, "customAdapt == null");
-        float sizeInDp = customAdapt.getSizeInDp();
-
         //如果 CustomAdapt#getSizeInDp() 返回 0, 则使用在 AndroidManifest 上填写的设计图尺寸
-        if (sizeInDp <= 0) {
-            if (customAdapt.isBaseOnWidth()) {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignWidthInDp();
-            } else {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignHeightInDp();
-            }
-        }
+        float sizeInDp = AutoSizeEngine.resolveSizeInDp(customAdapt.getSizeInDp(), customAdapt.isBaseOnWidth());
         autoConvertDensity(activity, sizeInDp, customAdapt.isBaseOnWidth());
     }
 
@@ -128,16 +137,8 @@ public final class AutoSize {
      */
     public static void autoConvertDensityOfExternalAdaptInfo(Activity activity, ExternalAdaptInfo externalAdaptInfo) {
         Preconditions.checkNotNull(externalAdaptInfo, "externalAdaptInfo == null");
-        float sizeInDp = externalAdaptInfo.getSizeInDp();
-
         //如果 ExternalAdaptInfo#getSizeInDp() 返回 0, 则使用在 AndroidManifest 上填写的设计图尺寸
-        if (sizeInDp <= 0) {
-            if (externalAdaptInfo.isBaseOnWidth()) {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignWidthInDp();
-            } else {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignHeightInDp();
-            }
-        }
+        float sizeInDp = AutoSizeEngine.resolveSizeInDp(externalAdaptInfo.getSizeInDp(), externalAdaptInfo.isBaseOnWidth());
         autoConvertDensity(activity, sizeInDp, externalAdaptInfo.isBaseOnWidth());
     }
 
@@ -165,6 +166,7 @@ public final class AutoSize {
      * 这里是今日头条适配方案的核心代码, 核心在于根据当前设备的实际情况做自动计算并转换 {@link DisplayMetrics#density}、
      * {@link DisplayMetrics#scaledDensity}、{@link DisplayMetrics#densityDpi} 这三个值, 额外增加 {@link DisplayMetrics#xdpi}
      * 以支持单位 {@code pt}、{@code in}、{@code mm}
+     * 计算时使用的是 {@code activity} 所在窗口的尺寸, 所以在分屏、自由窗口、折叠屏以及副屏上也能得到正确的适配效果
      *
      * @param activity      {@link Activity}
      * @param sizeInDp      设计图上的设计尺寸, 单位 dp, 如果 {@param isBaseOnWidth} 设置为 {@code true},
@@ -175,69 +177,17 @@ public final class AutoSize {
      */
     public static void autoConvertDensity(Activity activity, float sizeInDp, boolean isBaseOnWidth) {
         Preconditions.checkNotNull(activity, "activity == null");
-        Preconditions.checkMainThread();
-
-        float subunitsDesignSize = isBaseOnWidth ? AutoSizeConfig.getInstance().getUnitsManager().getDesignWidth()
-                : AutoSizeConfig.getInstance().getUnitsManager().getDesignHeight();
-        subunitsDesignSize = subunitsDesignSize > 0 ? subunitsDesignSize : sizeInDp;
-
-        int screenSize = isBaseOnWidth ? AutoSizeConfig.getInstance().getScreenWidth()
-                : AutoSizeConfig.getInstance().getScreenHeight();
-
-        int key = Math.round((sizeInDp + subunitsDesignSize + screenSize) * AutoSizeConfig.getInstance().getInitScaledDensity()) & ~MODE_MASK;
-        key = isBaseOnWidth ? (key | MODE_ON_WIDTH) : (key & ~MODE_ON_WIDTH);
-        key = AutoSizeConfig.getInstance().isUseDeviceSize() ? (key | MODE_DEVICE_SIZE) : (key & ~MODE_DEVICE_SIZE);
-
-        DisplayMetricsInfo displayMetricsInfo = mCache.get(key);
 
-        float targetDensity = 0;
-        int targetDensityDpi = 0;
-        float targetScaledDensity = 0;
-        float targetXdpi = 0;
-        int targetScreenWidthDp;
-        int targetScreenHeightDp;
+        DisplayMetricsInfo displayMetricsInfo = AutoSizeEngine.autoConvertDensity(activity, sizeInDp, isBaseOnWidth);
 
-        if (displayMetricsInfo == null) {
-            if (isBaseOnWidth) {
-                targetDensity = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / sizeInDp;
-            } else {
-                targetDensity = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / sizeInDp;
-            }
-            if (AutoSizeConfig.getInstance().getPrivateFontScale() > 0) {
-                targetScaledDensity = targetDensity * AutoSizeConfig.getInstance().getPrivateFontScale();
-            } else {
-                float systemFontScale = AutoSizeConfig.getInstance().isExcludeFontScale() ? 1 : AutoSizeConfig.getInstance().
-                        getInitScaledDensity() * 1.0f / AutoSizeConfig.getInstance().getInitDensity();
-                targetScaledDensity = targetDensity * systemFontScale;
-            }
-            targetDensityDpi = (int) (targetDensity * 160);
-
-            targetScreenWidthDp = (int) (AutoSizeConfig.getInstance().getScreenWidth() / targetDensity);
-            targetScreenHeightDp = (int) (AutoSizeConfig.getInstance().getScreenHeight() / targetDensity);
-
-            if (isBaseOnWidth) {
-                targetXdpi = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / subunitsDesignSize;
-            } else {
-                targetXdpi = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / subunitsDesignSize;
-            }
-
-            mCache.put(key, new DisplayMetricsInfo(targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi, targetScreenWidthDp, targetScreenHeightDp));
-        } else {
-            targetDensity = displayMetricsInfo.getDensity();
-            targetDensityDpi = displayMetricsInfo.getDensityDpi();
-            targetScaledDensity = displayMetricsInfo.getScaledDensity();
-            targetXdpi = displayMetricsInfo.getXdpi();
-            targetScreenWidthDp = displayMetricsInfo.getScreenWidthDp();
-            targetScreenHeightDp = displayMetricsInfo.getScreenHeightDp();
+        if (AutoSizeLog.isDebug()) {
+            float subunitsDesignSize = AutoSizeEngine.getSubunitsDesignSize(sizeInDp, isBaseOnWidth);
+            AutoSizeLog.d("The %s has been adapted! \n%s Info: isBaseOnWidth = %s, %s = %f, %s = %f, targetDensity = %f, targetScaledDensity = %f, targetDensityDpi = %d, targetXdpi = %f, targetScreenWidthDp = %d, targetScreenHeightDp = %d"
+                    , activity.getClass().getName(), activity.getClass().getSimpleName(), isBaseOnWidth, isBaseOnWidth ? "designWidthInDp"
+                            : "designHeightInDp", sizeInDp, isBaseOnWidth ? "designWidthInSubunits" : "designHeightInSubunits", subunitsDesignSize
+                    , displayMetricsInfo.getDensity(), displayMetricsInfo.getScaledDensity(), displayMetricsInfo.getDensityDpi()
+                    , displayMetricsInfo.getXdpi(), displayMetricsInfo.getScreenWidthDp(), displayMetricsInfo.getScreenHeightDp());
         }
-
-        setDensity(activity, targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi);
-        setScreenSizeDp(activity, targetScreenWidthDp, targetScreenHeightDp);
-
-        AutoSizeLog.d(String.format(Locale.ENGLISH, "The %s has been adapted! \n%s Info: isBaseOnWidth = %s, %s = %f, %s = %f, targetDensity = %f, targetScaledDensity = %f, targetDensityDpi = %d, targetXdpi = %f, targetScreenWidthDp = %d, targetScreenHeightDp = %d"
-                , activity.getClass().getName(), activity.getClass().getSimpleName(), isBaseOnWidth, isBaseOnWidth ? "designWidthInDp"
-                        : "designHeightInDp", sizeInDp, isBaseOnWidth ? "designWidthInSubunits" : "designHeightInSubunits", subunitsDesignSize
-                , targetDensity, targetScaledDensity, targetDensityDpi, targetXdpi, targetScreenWidthDp, targetScreenHeightDp));
     }
 
     /**
@@ -246,140 +196,64 @@ public final class AutoSize {
      * @param activity {@link Activity}
      */
     public static void cancelAdapt(Activity activity) {
-        Preconditions.checkMainThread();
-        float initXdpi = AutoSizeConfig.getInstance().getInitXdpi();
-        switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-            case PT:
-                initXdpi = initXdpi / 72f;
-                break;
-            case MM:
-                initXdpi = initXdpi / 25.4f;
-                break;
-            default:
-        }
-        setDensity(activity, AutoSizeConfig.getInstance().getInitDensity()
-                , AutoSizeConfig.getInstance().getInitDensityDpi()
-                , AutoSizeConfig.getInstance().getInitScaledDensity()
-                , initXdpi);
-        setScreenSizeDp(activity
-                , AutoSizeConfig.getInstance().getInitScreenWidthDp()
-                , AutoSizeConfig.getInstance().getInitScreenHeightDp());
+        AutoSizeEngine.cancelAdapt(activity.getResources());
     }
 
     /**
-     * 当 App 中出现多进程，并且您需要适配所有的进程，就需要在 App 初始化时调用 {@link #initCompatMultiProcess}
-     * 建议实现自定义 {@link Application} 并在 {@link Application#onCreate()} 中调用 {@link #initCompatMultiProcess}
+     * 返回适配结果缓存的统计数据, 包括命中次数、未命中次数和淘汰次数, 可以据此通过 {@link AutoSizeConfig#setCacheCapacity(int)}
+     * 调整缓存的容量上限, 缓存只会在主线程中被修改, 所以建议在主线程中调用此方法
      *
-     * @param context {@link Context}
+     * @return {@link DensityCacheStats}
      */
-    public static void initCompatMultiProcess(Context context) {
-        context.getContentResolver().query(Uri.parse("content://" + context.getPackageName() + ".autosize-init-provider"), null, null, null, null);
+    public static DensityCacheStats getCacheStats() {
+        return AutoSizeEngine.getCacheStats();
     }
 
     /**
-     * 给几大 {@link DisplayMetrics} 赋值
+     * 返回因为 {@link Resources} 已经处于目标状态而被跳过的赋值次数, 每个 {@link Resources} 计一次
+     * 配合 {@link #getWriteCount()} 可以确认重复适配时节省了多少次 {@link DisplayMetrics} 和 {@link Configuration} 的赋值
      *
-     * @param activity      {@link Activity}
-     * @param density       {@link DisplayMetrics#density}
-     * @param densityDpi    {@link DisplayMetrics#densityDpi}
-     * @param scaledDensity {@link DisplayMetrics#scaledDensity}
-     * @param xdpi          {@link DisplayMetrics#xdpi}
+     * @return 跳过的赋值次数
      */
-    private static void setDensity(Activity activity, float density, int densityDpi, float scaledDensity, float xdpi) {
-        DisplayMetrics activityDisplayMetrics = activity.getResources().getDisplayMetrics();
-        setDensity(activityDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
-        DisplayMetrics appDisplayMetrics = AutoSizeConfig.getInstance().getApplication().getResources().getDisplayMetrics();
-        setDensity(appDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
-
-        //兼容 MIUI
-        DisplayMetrics activityDisplayMetricsOnMIUI = getMetricsOnMiui(activity.getResources());
-        DisplayMetrics appDisplayMetricsOnMIUI = getMetricsOnMiui(AutoSizeConfig.getInstance().getApplication().getResources());
-
-        if (activityDisplayMetricsOnMIUI != null) {
-            setDensity(activityDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
-        }
-        if (appDisplayMetricsOnMIUI != null) {
-            setDensity(appDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
-        }
+    public static long getSkippedWriteCount() {
+        return AutoSizeEngine.getSkippedWriteCount();
     }
 
     /**
-     * 赋值
+     * 返回实际发生的赋值次数, 每个 {@link Resources} 计一次
      *
-     * @param displayMetrics {@link DisplayMetrics}
-     * @param density        {@link DisplayMetrics#density}
-     * @param densityDpi     {@link DisplayMetrics#densityDpi}
-     * @param scaledDensity  {@link DisplayMetrics#scaledDensity}
-     * @param xdpi           {@link DisplayMetrics#xdpi}
+     * @return 实际发生的赋值次数
      */
-    private static void setDensity(DisplayMetrics displayMetrics, float density, int densityDpi, float scaledDensity, float xdpi) {
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportDP()) {
-            displayMetrics.density = density;
-            displayMetrics.densityDpi = densityDpi;
-        }
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportSP()) {
-            displayMetrics.scaledDensity = scaledDensity;
-        }
-        switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-            case NONE:
-                break;
-            case PT:
-                displayMetrics.xdpi = xdpi * 72f;
-                break;
-            case IN:
-                displayMetrics.xdpi = xdpi;
-                break;
-            case MM:
-                displayMetrics.xdpi = xdpi * 25.4f;
-                break;
-            default:
-        }
+    public static long getWriteCount() {
+        return AutoSizeEngine.getWriteCount();
     }
 
     /**
-     * 给 {@link Configuration} 赋值
+     * 返回适配数据的统计快照, 包括汇总数据和每个 {@link Activity}、Fragment 各自的适配次数、缓存命中次数、赋值次数和适配耗时
+     * 需要先通过 {@link AutoSizeConfig#setMetricsEnabled(boolean)} 开启统计, 只能在主线程中调用
      *
-     * @param activity       {@link Activity}
-     * @param screenWidthDp  {@link Configuration#screenWidthDp}
-     * @param screenHeightDp {@link Configuration#screenHeightDp}
+     * @return {@link AdaptMetricsSnapshot}
      */
-    private static void setScreenSizeDp(Activity activity, int screenWidthDp, int screenHeightDp) {
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportDP() && AutoSizeConfig.getInstance().getUnitsManager().isSupportScreenSizeDP()) {
-            Configuration activityConfiguration = activity.getResources().getConfiguration();
-            setScreenSizeDp(activityConfiguration, screenWidthDp, screenHeightDp);
-
-            Configuration appConfiguration = AutoSizeConfig.getInstance().getApplication().getResources().getConfiguration();
-            setScreenSizeDp(appConfiguration, screenWidthDp, screenHeightDp);
-        }
+    public static AdaptMetricsSnapshot getAdaptMetrics() {
+        Preconditions.checkMainThread();
+        return AutoSizeEngine.getMetrics().snapshot();
     }
 
     /**
-     * Configuration赋值
-     *
-     * @param configuration  {@link Configuration}
-     * @param screenWidthDp  {@link Configuration#screenWidthDp}
-     * @param screenHeightDp {@link Configuration#screenHeightDp}
+     * 清空所有适配数据的统计结果, 只能在主线程中调用
      */
-    private static void setScreenSizeDp(Configuration configuration, int screenWidthDp, int screenHeightDp) {
-        configuration.screenWidthDp = screenWidthDp;
-        configuration.screenHeightDp = screenHeightDp;
+    public static void resetAdaptMetrics() {
+        Preconditions.checkMainThread();
+        AutoSizeEngine.getMetrics().reset();
     }
 
     /**
-     * 解决 MIUI 更改框架导致的 MIUI7 + Android5.1.1 上出现的失效问题 (以及极少数基于这部分 MIUI 去掉 ART 然后置入 XPosed 的手机)
-     * 来源于: https://github.com/Firedamp/Rudeness/blob/master/rudeness-sdk/src/main/java/com/bulong/rudeness/RudenessScreenHelper.java#L61:5
+     * 当 App 中出现多进程，并且您需要适配所有的进程，就需要在 App 初始化时调用 {@link #initCompatMultiProcess}
+     * 建议实现自定义 {@link Application} 并在 {@link Application#onCreate()} 中调用 {@link #initCompatMultiProcess}
      *
-     * @param resources {@link Resources}
-     * @return {@link DisplayMetrics}, 可能为 {@code null}
+     * @param context {@link Context}
      */
-    private static DisplayMetrics getMetricsOnMiui(Resources resources) {
-        if (AutoSizeConfig.getInstance().isMiui() && AutoSizeConfig.getInstance().getTmpMetricsField() != null) {
-            try {
-                return (DisplayMetrics) AutoSizeConfig.getInstance().getTmpMetricsField().get(resources);
-            } catch (Exception e) {
-                return null;
-            }
-        }
-        return null;
+    public static void initCompatMultiProcess(Context context) {
+        context.getContentResolver().query(Uri.parse("content://" + context.getPackageName() + ".autosize-init-provider"), null, null, null, null);
     }
 }
@@ -16,10 +16,8 @@
 package me.jessyan.autosize;
 
 import android.app.Activity;
-import android.content.res.Configuration;
 import android.content.res.Resources;
 import android.util.DisplayMetrics;
-import android.util.SparseArray;
 
 import me.jessyan.autosize.external.ExternalAdaptInfo;
 import me.jessyan.autosize.external.ExternalAdaptManager;
@@ -37,12 +35,6 @@ import me.jessyan.autosize.utils.Preconditions;
  * ================================================
  */
 public final class AutoSizeCompat {
-    private static SparseArray<DisplayMetricsInfo> mCache = new SparseArray<>();
-    private static final int MODE_SHIFT = 30;
-    private static final int MODE_MASK  = 0x3 << MODE_SHIFT;
-    private static final int MODE_ON_WIDTH  = 1 << MODE_SHIFT;
-    private static final int MODE_DEVICE_SIZE  = 2 << MODE_SHIFT;
-
     private AutoSizeCompat() {
         throw new IllegalStateException("you can't instantiate me!");
     }
@@ -68,16 +60,8 @@ public final class AutoSizeCompat {
      */
     public static void autoConvertDensityOfCustomAdapt(Resources resources, CustomAdapt customAdapt) {
         Preconditions.checkNotNull(customAdapt, "customAdapt == null");
-        float sizeInDp = customAdapt.getSizeInDp();
-
         //如果 CustomAdapt#getSizeInDp() 返回 0, 则使用在 AndroidManifest 上填写的设计图尺寸
-        if (sizeInDp <= 0) {
-            if (customAdapt.isBaseOnWidth()) {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignWidthInDp();
-            } else {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignHeightInDp();
-            }
-        }
+        float sizeInDp = AutoSizeEngine.resolveSizeInDp(customAdapt.getSizeInDp(), customAdapt.isBaseOnWidth());
         autoConvertDensity(resources, sizeInDp, customAdapt.isBaseOnWidth());
     }
 
@@ -89,16 +73,8 @@ public final class AutoSizeCompat {
      */
     public static void autoConvertDensityOfExternalAdaptInfo(Resources resources, ExternalAdaptInfo externalAdaptInfo) {
         Preconditions.checkNotNull(externalAdaptInfo, "externalAdaptInfo == null");
-        float sizeInDp = externalAdaptInfo.getSizeInDp();
-
         //如果 ExternalAdaptInfo#getSizeInDp() 返回 0, 则使用在 AndroidManifest 上填写的设计图尺寸
-        if (sizeInDp <= 0) {
-            if (externalAdaptInfo.isBaseOnWidth()) {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignWidthInDp();
-            } else {
-                sizeInDp = AutoSizeConfig.getInstance().getDesignHeightInDp();
-            }
-        }
+        float sizeInDp = AutoSizeEngine.resolveSizeInDp(externalAdaptInfo.getSizeInDp(), externalAdaptInfo.isBaseOnWidth());
         autoConvertDensity(resources, sizeInDp, externalAdaptInfo.isBaseOnWidth());
     }
 
@@ -135,197 +111,27 @@ public final class AutoSizeCompat {
      * @see <a href="https://mp.weixin.qq.com/s/d9QCoBP6kV9VSWvVldVVwA">今日头条官方适配方案</a>
      */
     public static void autoConvertDensity(Resources resources, float sizeInDp, boolean isBaseOnWidth) {
-        Preconditions.checkNotNull(resources, "resources == null");
-        Preconditions.checkMainThread();
-
-        float subunitsDesignSize = isBaseOnWidth ? AutoSizeConfig.getInstance().getUnitsManager().getDesignWidth()
-                : AutoSizeConfig.getInstance().getUnitsManager().getDesignHeight();
-        subunitsDesignSize = subunitsDesignSize > 0 ? subunitsDesignSize : sizeInDp;
-
-        int screenSize = isBaseOnWidth ? AutoSizeConfig.getInstance().getScreenWidth()
-                : AutoSizeConfig.getInstance().getScreenHeight();
-
-        int key = Math.round((sizeInDp + subunitsDesignSize + screenSize) * AutoSizeConfig.getInstance().getInitScaledDensity()) & ~MODE_MASK;
-        key = isBaseOnWidth ? (key | MODE_ON_WIDTH) : (key & ~MODE_ON_WIDTH);
-        key = AutoSizeConfig.getInstance().isUseDeviceSize() ? (key | MODE_DEVICE_SIZE) : (key & ~MODE_DEVICE_SIZE);
-
-        DisplayMetricsInfo displayMetricsInfo = mCache.get(key);
-
-        float targetDensity = 0;
-        int targetDensityDpi = 0;
-        float targetScaledDensity = 0;
-        float targetXdpi = 0;
-        int targetScreenWidthDp;
-        int targetScreenHeightDp;
-
-        if (displayMetricsInfo == null) {
-            if (isBaseOnWidth) {
-                targetDensity = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / sizeInDp;
-            } else {
-                targetDensity = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / sizeInDp;
-            }
-            if (AutoSizeConfig.getInstance().getPrivateFontScale() > 0) {
-                targetScaledDensity = targetDensity * AutoSizeConfig.getInstance().getPrivateFontScale();
-            } else {
-                float systemFontScale = AutoSizeConfig.getInstance().isExcludeFontScale() ? 1 : AutoSizeConfig.getInstance().
-                        getInitScaledDensity() * 1.0f / AutoSizeConfig.getInstance().getInitDensity();
-                targetScaledDensity = targetDensity * systemFontScale;
-            }
-            targetDensityDpi = (int) (targetDensity * 160);
-
-            targetScreenWidthDp = (int) (AutoSizeConfig.getInstance().getScreenWidth() / targetDensity);
-            targetScreenHeightDp = (int) (AutoSizeConfig.getInstance().getScreenHeight() / targetDensity);
-
-            if (isBaseOnWidth) {
-                targetXdpi = AutoSizeConfig.getInstance().getScreenWidth() * 1.0f / subunitsDesignSize;
-            } else {
-                targetXdpi = AutoSizeConfig.getInstance().getScreenHeight() * 1.0f / subunitsDesignSize;
-            }
-
-            mCache.put(key, new DisplayMetricsInfo(targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi, targetScreenWidthDp, targetScreenHeightDp));
-        } else {
-            targetDensity = displayMetricsInfo.getDensity();
-            targetDensityDpi = displayMetricsInfo.getDensityDpi();
-            targetScaledDensity = displayMetricsInfo.getScaledDensity();
-            targetXdpi = displayMetricsInfo.getXdpi();
-            targetScreenWidthDp = displayMetricsInfo.getScreenWidthDp();
-            targetScreenHeightDp = displayMetricsInfo.getScreenHeightDp();
-        }
-
-        setDensity(resources, targetDensity, targetDensityDpi, targetScaledDensity, targetXdpi);
-        setScreenSizeDp(resources, targetScreenWidthDp, targetScreenHeightDp);
-    }
-
-    /**
-     * 取消适配
-     *
-     * @param resources {@link Resources}
-     */
-    public static void cancelAdapt(Resources resources) {
-        Preconditions.checkMainThread();
-        float initXdpi = AutoSizeConfig.getInstance().getInitXdpi();
-        switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-            case PT:
-                initXdpi = initXdpi / 72f;
-                break;
-            case MM:
-                initXdpi = initXdpi / 25.4f;
-                break;
-            default:
-        }
-        setDensity(resources, AutoSizeConfig.getInstance().getInitDensity()
-                , AutoSizeConfig.getInstance().getInitDensityDpi()
-                , AutoSizeConfig.getInstance().getInitScaledDensity()
-                , initXdpi);
-        setScreenSizeDp(resources
-                , AutoSizeConfig.getInstance().getInitScreenWidthDp()
-                , AutoSizeConfig.getInstance().getInitScreenHeightDp());
-    }
-
-    /**
-     * 给几大 {@link DisplayMetrics} 赋值
-     *
-     * @param resources     {@link Resources}
-     * @param density       {@link DisplayMetrics#density}
-     * @param densityDpi    {@link DisplayMetrics#densityDpi}
-     * @param scaledDensity {@link DisplayMetrics#scaledDensity}
-     * @param xdpi          {@link DisplayMetrics#xdpi}
-     */
-    private static void setDensity(Resources resources, float density, int densityDpi, float scaledDensity, float xdpi) {
-        DisplayMetrics activityDisplayMetrics = resources.getDisplayMetrics();
-        setDensity(activityDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
-        DisplayMetrics appDisplayMetrics = AutoSizeConfig.getInstance().getApplication().getResources().getDisplayMetrics();
-        setDensity(appDisplayMetrics, density, densityDpi, scaledDensity, xdpi);
-
-        //兼容 MIUI
-        DisplayMetrics activityDisplayMetricsOnMIUI = getMetricsOnMiui(resources);
-        DisplayMetrics appDisplayMetricsOnMIUI = getMetricsOnMiui(AutoSizeConfig.getInstance().getApplication().getResources());
-
-        if (activityDisplayMetricsOnMIUI != null) {
-            setDensity(activityDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
-        }
-        if (appDisplayMetricsOnMIUI != null) {
-            setDensity(appDisplayMetricsOnMIUI, density, densityDpi, scaledDensity, xdpi);
-        }
+        AutoSizeEngine.autoConvertDensity(resources, sizeInDp, isBaseOnWidth);
     }
 
     /**
-     * 赋值
+     * 与 {@link #autoConvertDensity(Resources, float, boolean)} 使用同一套计算逻辑和缓存, 但只修改传入的 {@link DisplayMetrics}
+     * 适用于自行创建了 {@link Resources} 或 {@link DisplayMetrics}, 又不想影响 Application 的场景
      *
      * @param displayMetrics {@link DisplayMetrics}
-     * @param density        {@link DisplayMetrics#density}
-     * @param densityDpi     {@link DisplayMetrics#densityDpi}
-     * @param scaledDensity  {@link DisplayMetrics#scaledDensity}
-     * @param xdpi           {@link DisplayMetrics#xdpi}
+     * @param sizeInDp       设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth  是否按照宽度进行等比例适配, {@code true} 为以宽度进行等比例适配, {@code false} 为以高度进行等比例适配
      */
-    private static void setDensity(DisplayMetrics displayMetrics, float density, int densityDpi, float scaledDensity, float xdpi) {
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportDP()) {
-            displayMetrics.density = density;
-            displayMetrics.densityDpi = densityDpi;
-        }
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportSP()) {
-            displayMetrics.scaledDensity = scaledDensity;
-        }
-        switch (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits()) {
-            case NONE:
-                break;
-            case PT:
-                displayMetrics.xdpi = xdpi * 72f;
-                break;
-            case IN:
-                displayMetrics.xdpi = xdpi;
-                break;
-            case MM:
-                displayMetrics.xdpi = xdpi * 25.4f;
-                break;
-            default:
-        }
+    public static void autoConvertDensity(DisplayMetrics displayMetrics, float sizeInDp, boolean isBaseOnWidth) {
+        AutoSizeEngine.autoConvertDensity(displayMetrics, sizeInDp, isBaseOnWidth);
     }
 
     /**
-     * 给 {@link Configuration} 赋值
-     *
-     * @param resources      {@link Resources}
-     * @param screenWidthDp  {@link Configuration#screenWidthDp}
-     * @param screenHeightDp {@link Configuration#screenHeightDp}
-     */
-    private static void setScreenSizeDp(Resources resources, int screenWidthDp, int screenHeightDp) {
-        if (AutoSizeConfig.getInstance().getUnitsManager().isSupportDP() && AutoSizeConfig.getInstance().getUnitsManager().isSupportScreenSizeDP()) {
-            Configuration activityConfiguration = resources.getConfiguration();
-            setScreenSizeDp(activityConfiguration, screenWidthDp, screenHeightDp);
-
-            Configuration appConfiguration = AutoSizeConfig.getInstance().getApplication().getResources().getConfiguration();
-            setScreenSizeDp(appConfiguration, screenWidthDp, screenHeightDp);
-        }
-    }
-
-    /**
-     * Configuration赋值
-     *
-     * @param configuration  {@link Configuration}
-     * @param screenWidthDp  {@link Configuration#screenWidthDp}
-     * @param screenHeightDp {@link Configuration#screenHeightDp}
-     */
-    private static void setScreenSizeDp(Configuration configuration, int screenWidthDp, int screenHeightDp) {
-        configuration.screenWidthDp = screenWidthDp;
-        configuration.screenHeightDp = screenHeightDp;
-    }
-
-    /**
-     * 解决 MIUI 更改框架导致的 MIUI7 + Android5.1.1 上出现的失效问题 (以及极少数基于这部分 MIUI 去掉 ART 然后置入 XPosed 的手机)
-     * 来源于: https://github.com/Firedamp/Rudeness/blob/master/rudeness-sdk/src/main/java/com/bulong/rudeness/RudenessScreenHelper.java#L61:5
+     * 取消适配
      *
      * @param resources {@link Resources}
-     * @return {@link DisplayMetrics}, 可能为 {@code null}
      */
-    private static DisplayMetrics getMetricsOnMiui(Resources resources) {
-        if (AutoSizeConfig.getInstance().isMiui() && AutoSizeConfig.getInstance().getTmpMetricsField() != null) {
-            try {
-                return (DisplayMetrics) AutoSizeConfig.getInstance().getTmpMetricsField().get(resources);
-            } catch (Exception e) {
-                return null;
-            }
-        }
-        return null;
+    public static void cancelAdapt(Resources resources) {
+        AutoSizeEngine.cancelAdapt(resources);
     }
 }
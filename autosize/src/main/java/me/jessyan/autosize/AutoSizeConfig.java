@@ -23,15 +23,21 @@ import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
 import android.content.res.Configuration;
 import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.DisplayMetrics;
 
 import java.lang.reflect.Field;
+import java.util.Arrays;
 
+import me.jessyan.autosize.annotation.AdaptRegistry;
 import me.jessyan.autosize.external.ExternalAdaptManager;
 import me.jessyan.autosize.unit.Subunits;
 import me.jessyan.autosize.unit.UnitsManager;
 import me.jessyan.autosize.utils.AutoSizeLog;
+import me.jessyan.autosize.utils.AutoSizeTrace;
 import me.jessyan.autosize.utils.Preconditions;
+import me.jessyan.autosize.utils.ScreenMetricsProvider;
 import me.jessyan.autosize.utils.ScreenUtils;
 
 /**
@@ -45,8 +51,8 @@ import me.jessyan.autosize.utils.ScreenUtils;
  */
 public final class AutoSizeConfig {
     private static volatile AutoSizeConfig sInstance;
-    private static final String KEY_DESIGN_WIDTH_IN_DP = "design_width_in_dp";
-    private static final String KEY_DESIGN_HEIGHT_IN_DP = "design_height_in_dp";
+    static final String KEY_DESIGN_WIDTH_IN_DP = "design_width_in_dp";
+    static final String KEY_DESIGN_HEIGHT_IN_DP = "design_height_in_dp";
     public static final boolean DEPENDENCY_ANDROIDX;
     public static final boolean DEPENDENCY_SUPPORT;
     private Application mApplication;
@@ -54,6 +60,10 @@ public final class AutoSizeConfig {
      * 用来管理外部三方库 {@link Activity} 的适配
      */
     private ExternalAdaptManager mExternalAdaptManager = new ExternalAdaptManager();
+    /**
+     * 由 autosize-compiler 在编译期生成的适配参数注册表, 每次注册都会替换成一个新的数组, 数组本身不会被修改
+     */
+    private volatile AdaptRegistry[] mAdaptRegistries = new AdaptRegistry[0];
     /**
      * 用来管理 AndroidAutoSize 支持的所有单位, AndroidAutoSize 支持五种单位 (dp、sp、pt、in、mm)
      */
@@ -101,9 +111,23 @@ public final class AutoSizeConfig {
     /**
      * 状态栏高度, 当 {@link #isUseDeviceSize} 为 {@code false} 时, AndroidAutoSize 会将 {@link #mScreenHeight} 减去状态栏高度
      * AndroidAutoSize 默认使用 {@link ScreenUtils#getStatusBarHeight()} 方法获取状态栏高度
+     * 适配 {@link Activity} 时优先使用窗口自身的状态栏高度, 详情请查看 {@link #getScreenHeight(Activity)}
      * AndroidAutoSize 使用者可使用 {@link #setStatusBarHeight(int)} 自行设置状态栏高度
      */
     private int mStatusBarHeight;
+    /**
+     * 记录每个 {@link Activity} 所在窗口的尺寸, 在分屏、自由窗口、折叠屏以及副屏上, {@link Activity} 会使用自己窗口的尺寸进行适配
+     */
+    private final WindowSizeTracker mWindowSizeTracker = new WindowSizeTracker();
+    /**
+     * 跟踪默认屏幕的尺寸, 只有像素尺寸真的发生变化时才会更新 {@link #mScreenWidth} 和 {@link #mScreenHeight}
+     */
+    private ScreenSizeTracker mScreenSizeTracker;
+    /**
+     * 使用者是否通过 {@link #setScreenWidth(int)} 或 {@link #setScreenHeight(int)} 主动设置过屏幕尺寸
+     * 主动设置过后, 所有 {@link Activity} 都使用 {@link #mScreenWidth} 和 {@link #mScreenHeight} 进行适配, 与之前的版本保持一致
+     */
+    private boolean isCustomScreenSize;
     /**
      * 为了保证在不同高宽比的屏幕上显示效果也能完全一致, 所以本方案适配时是以设计图宽度与设备实际宽度的比例或设计图高度与设备实际高度的比例应用到
      * 每个 View 上 (只能在宽度和高度之中选一个作为基准), 从而使每个 View 的高和宽用同样的比例缩放, 避免在与设计图高宽比不一致的设备上出现适配的 View 高或宽变形的问题
@@ -148,17 +172,41 @@ public final class AutoSizeConfig {
      */
     private float privateFontScale;
     /**
-     * 是否是 Miui 系统
+     * 兼容 Miui 系统, 默认已经注册到 {@link #mResourcesPatchers} 中
      */
-    private boolean isMiui;
+    private final MiuiResourcesPatcher mMiuiResourcesPatcher = new MiuiResourcesPatcher();
     /**
-     * Miui 系统中的 mTmpMetrics 字段
+     * 兼容修改了 {@link Resources} 的 ROM, 详情请查看 {@link ResourcesPatcher}
      */
-    private Field mTmpMetricsField;
+    private final ResourcesPatcherRegistry mResourcesPatchers = new ResourcesPatcherRegistry();
+    /**
+     * 是否已经获取过 {@link #mStatusBarHeight}
+     */
+    private boolean isStatusBarHeightResolved;
+    /**
+     * 使用者是否通过 {@link #setStatusBarHeight(int)} 主动设置过状态栏高度
+     */
+    private boolean isCustomStatusBarHeight;
+    /**
+     * 是否使用了延迟初始化, 详情请查看 {@link AutoSize#initDeferred(Application)}
+     */
+    private boolean isDeferredInit;
+    /**
+     * 初始化时各个阶段的耗时, 单位 ns, 还没有执行的阶段为 {@code -1}
+     */
+    private final long[] mInitPhaseNanos = new long[InitTimings.PHASE_COUNT];
     /**
      * 屏幕适配监听器，用于监听屏幕适配时的一些事件
      */
     private onAdaptListener mOnAdaptListener;
+    /**
+     * 当前配置的快照, 配置被修改后置为 {@code null}, 下次适配时重新创建
+     */
+    private volatile ConfigSnapshot mSnapshot;
+    /**
+     * 配置的版本号, 每次影响适配结果的配置被修改都会递增, 只在持有 {@code this} 锁时修改
+     */
+    private int mVersion;
 
     static {
         DEPENDENCY_ANDROIDX = findClassByClassName("androidx.fragment.app.FragmentActivity");
@@ -168,7 +216,8 @@ public final class AutoSizeConfig {
     private static boolean findClassByClassName(String className) {
         boolean hasDependency;
         try {
-            Class.forName(className);
+            //只检查类是否存在, 不触发类的初始化
+            Class.forName(className, false, AutoSizeConfig.class.getClassLoader());
             hasDependency = true;
         } catch (ClassNotFoundException e) {
             hasDependency = false;
@@ -188,6 +237,7 @@ public final class AutoSizeConfig {
     }
 
     private AutoSizeConfig() {
+        mResourcesPatchers.add(mMiuiResourcesPatcher);
     }
 
     public Application getApplication() {
@@ -224,51 +274,79 @@ public final class AutoSizeConfig {
      * @param isBaseOnWidth 详情请查看 {@link #isBaseOnWidth} 的注释
      * @param strategy      {@link AutoAdaptStrategy}, 传 {@code null} 则使用 {@link DefaultAutoAdaptStrategy}
      */
-    AutoSizeConfig init(final Application application, boolean isBaseOnWidth, AutoAdaptStrategy strategy) {
+    AutoSizeConfig init(Application application, boolean isBaseOnWidth, AutoAdaptStrategy strategy) {
+        return init(application, isBaseOnWidth, strategy, false);
+    }
+
+    /**
+     * 延迟初始化, 只读取系统的初始 DisplayMetrics 并注册回调, 设计图尺寸、屏幕尺寸、状态栏高度、Miui 检测
+     * 都推迟到第一次用到时 (一般为第一次适配时) 才执行, 详情请查看 {@link AutoSize#initDeferred(Application)}
+     *
+     * @param application   {@link Application}
+     * @param isBaseOnWidth 详情请查看 {@link #isBaseOnWidth} 的注释
+     * @param strategy      {@link AutoAdaptStrategy}, 传 {@code null} 则使用 {@link DefaultAutoAdaptStrategy}
+     */
+    AutoSizeConfig initDeferred(Application application, boolean isBaseOnWidth, AutoAdaptStrategy strategy) {
+        return init(application, isBaseOnWidth, strategy, true);
+    }
+
+    private AutoSizeConfig init(final Application application, boolean isBaseOnWidth, AutoAdaptStrategy strategy, boolean deferred) {
         Preconditions.checkArgument(mInitDensity == -1, "AutoSizeConfig#init() can only be called once");
         Preconditions.checkNotNull(application, "application == null");
+        long start = System.nanoTime();
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_REGISTER);
+        Arrays.fill(mInitPhaseNanos, -1);
         this.mApplication = application;
         this.isBaseOnWidth = isBaseOnWidth;
-        final DisplayMetrics displayMetrics = Resources.getSystem().getDisplayMetrics();
-        final Configuration configuration = Resources.getSystem().getConfiguration();
-
-        //设置一个默认值, 避免在低配设备上因为获取 MetaData 过慢, 导致适配时未能正常获取到设计图尺寸
-        //建议使用者在低配设备上主动在 Application#onCreate 中调用 setDesignWidthInDp 替代以使用 AndroidManifest 配置设计图尺寸的方式
-        if (AutoSizeConfig.getInstance().getUnitsManager().getSupportSubunits() == Subunits.NONE) {
-            mDesignWidthInDp = 360;
-            mDesignHeightInDp = 640;
-        } else {
-            mDesignWidthInDp = 1080;
-            mDesignHeightInDp = 1920;
-        }
-
-        getMetaData(application);
+        this.isDeferredInit = deferred;
         isVertical = application.getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT;
-        int[] screenSize = ScreenUtils.getScreenSize(application);
-        mScreenWidth = screenSize[0];
-        mScreenHeight = screenSize[1];
-        mStatusBarHeight = ScreenUtils.getStatusBarHeight();
-        AutoSizeLog.d("designWidthInDp = " + mDesignWidthInDp + ", designHeightInDp = " + mDesignHeightInDp + ", screenWidth = " + mScreenWidth + ", screenHeight = " + mScreenHeight);
+        readInitMetrics();
+        mScreenSizeTracker = new ScreenSizeTracker(application, new ScreenSizeTracker.OnScreenSizeChangedListener() {
+            @Override
+            public void onScreenSizeChanged(int width, int height) {
+                synchronized (AutoSizeConfig.this) {
+                    mScreenWidth = width;
+                    mScreenHeight = height;
+                    //屏幕旋转后状态栏高度也可能改变, 资源 id 已经缓存, 重新获取的开销很小
+                    if (isStatusBarHeightResolved && !isCustomStatusBarHeight) {
+                        mStatusBarHeight = ScreenUtils.getStatusBarHeight();
+                    }
+                    invalidateSnapshot();
+                }
+                mWindowSizeTracker.invalidate();
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("screenWidth = %d, screenHeight = %d on ScreenSizeChanged", width, height);
+                }
+            }
 
-        mInitDensity = displayMetrics.density;
-        mInitDensityDpi = displayMetrics.densityDpi;
-        mInitScaledDensity = displayMetrics.scaledDensity;
-        mInitXdpi = displayMetrics.xdpi;
-        mInitScreenWidthDp = configuration.screenWidthDp;
-        mInitScreenHeightDp = configuration.screenHeightDp;
+            @Override
+            public void onScreenRotationChanged(int rotation) {
+                //每个窗口的状态栏高度按照旋转方向缓存, 所以只需要让窗口尺寸的记录失效
+                mWindowSizeTracker.invalidate();
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("rotation = %d on ScreenRotationChanged", rotation);
+                }
+            }
+        });
         application.registerComponentCallbacks(new ComponentCallbacks() {
             @Override
             public void onConfigurationChanged(Configuration newConfig) {
                 if (newConfig != null) {
-                    if (newConfig.fontScale > 0) {
-                        mInitScaledDensity =
-                                Resources.getSystem().getDisplayMetrics().scaledDensity;
-                        AutoSizeLog.d("initScaledDensity = " + mInitScaledDensity + " on ConfigurationChanged");
+                    //系统字体大小、显示大小 (density) 改变后递增版本号, 让之前缓存的适配结果全部失效
+                    synchronized (AutoSizeConfig.this) {
+                        if (readInitMetrics()) {
+                            invalidateCache();
+                        } else {
+                            invalidateSnapshot();
+                        }
+                    }
+                    //分屏、自由窗口改变窗口尺寸时屏幕的像素尺寸不变, ScreenSizeTracker 不会回调, 所以每次都要让窗口尺寸的记录失效
+                    mWindowSizeTracker.invalidate();
+                    if (AutoSizeLog.isDebug()) {
+                        AutoSizeLog.d("initDensity = %f, initScaledDensity = %f on ConfigurationChanged", mInitDensity, mInitScaledDensity);
                     }
                     isVertical = newConfig.orientation == Configuration.ORIENTATION_PORTRAIT;
-                    int[] screenSize = ScreenUtils.getScreenSize(application);
-                    mScreenWidth = screenSize[0];
-                    mScreenHeight = screenSize[1];
+                    mScreenSizeTracker.onConfigurationChanged(newConfig);
                 }
             }
 
@@ -277,21 +355,180 @@ public final class AutoSizeConfig {
 
             }
         });
-        AutoSizeLog.d("initDensity = " + mInitDensity + ", initScaledDensity = " + mInitScaledDensity);
         mActivityLifecycleCallbacks = new ActivityLifecycleCallbacksImpl(new WrapperAutoAdaptStrategy(strategy == null ? new DefaultAutoAdaptStrategy() : strategy));
         application.registerActivityLifecycleCallbacks(mActivityLifecycleCallbacks);
-        if ("MiuiResources".equals(application.getResources().getClass().getSimpleName()) || "XResources".equals(application.getResources().getClass().getSimpleName())) {
-            isMiui = true;
-            try {
-                mTmpMetricsField = Resources.class.getDeclaredField("mTmpMetrics");
-                mTmpMetricsField.setAccessible(true);
-            } catch (Exception e) {
-                mTmpMetricsField = null;
+        if (traced) {
+            AutoSizeTrace.endSection();
+        }
+        mInitPhaseNanos[InitTimings.PHASE_REGISTER] = System.nanoTime() - start;
+        if (AutoSizeLog.isDebug()) {
+            AutoSizeLog.d("initDensity = %f, initScaledDensity = %f", mInitDensity, mInitScaledDensity);
+        }
+
+        if (!deferred) {
+            start = System.nanoTime();
+            traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_META_DATA);
+            //优先使用编译期生成的设计图尺寸, 只有没有生成时才需要启动线程读取 MetaData
+            boolean baked = loadBakedDesignSize(application);
+            //设置一个默认值, 避免在低配设备上因为获取 MetaData 过慢, 导致适配时未能正常获取到设计图尺寸
+            //建议使用 autosize/design-size.gradle 在编译期生成设计图尺寸, 或主动在 Application#onCreate 中调用 setDesignWidthInDp
+            setDefaultDesignSize();
+            if (!baked) {
+                getMetaData(application);
+            }
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+            mInitPhaseNanos[InitTimings.PHASE_META_DATA] = System.nanoTime() - start;
+            synchronized (this) {
+                resolveScreenSize();
+                resolveStatusBarHeight();
+                invalidateSnapshot();
+            }
+            resolveResourcesPatchers();
+            if (AutoSizeLog.isDebug()) {
+                AutoSizeLog.d("designWidthInDp = %d, designHeightInDp = %d, screenWidth = %d, screenHeight = %d", mDesignWidthInDp, mDesignHeightInDp, mScreenWidth, mScreenHeight);
             }
         }
         return this;
     }
 
+    /**
+     * 从 {@link Resources#getSystem()} 中读取没有被修改过的 {@link DisplayMetrics} 和 {@link Configuration}
+     *
+     * @return {@code true} 表示会影响适配结果的 density、scaledDensity 或 xdpi 发生了变化
+     */
+    private boolean readInitMetrics() {
+        DisplayMetrics displayMetrics = Resources.getSystem().getDisplayMetrics();
+        Configuration configuration = Resources.getSystem().getConfiguration();
+        boolean changed = mInitDensity != displayMetrics.density
+                || mInitDensityDpi != displayMetrics.densityDpi
+                || mInitScaledDensity != displayMetrics.scaledDensity
+                || mInitXdpi != displayMetrics.xdpi;
+        mInitDensity = displayMetrics.density;
+        mInitDensityDpi = displayMetrics.densityDpi;
+        mInitScaledDensity = displayMetrics.scaledDensity;
+        mInitXdpi = displayMetrics.xdpi;
+        mInitScreenWidthDp = configuration.screenWidthDp;
+        mInitScreenHeightDp = configuration.screenHeightDp;
+        return changed;
+    }
+
+    /**
+     * 没有在 AndroidManifest 中填写设计图尺寸时使用的默认值, 不会覆盖已经设置过的值
+     */
+    private void setDefaultDesignSize() {
+        boolean noSubunits = getUnitsManager().getSupportSubunits() == Subunits.NONE;
+        if (mDesignWidthInDp <= 0) {
+            mDesignWidthInDp = noSubunits ? 360 : 1080;
+        }
+        if (mDesignHeightInDp <= 0) {
+            mDesignHeightInDp = noSubunits ? 640 : 1920;
+        }
+    }
+
+    /**
+     * 延迟初始化时, 在第一次用到设计图尺寸时同步读取 AndroidManifest 中的设计图尺寸, 不会覆盖使用者主动设置的值
+     * 调用者必须持有 {@code this} 锁, 除了 {@link #createSnapshot()} 以外, 调用之后还需要调用 {@link #invalidateSnapshot()}
+     */
+    private void resolveDesignSize() {
+        long start = System.nanoTime();
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_META_DATA);
+        ApplicationInfo applicationInfo = loadBakedDesignSize(mApplication) ? null : loadApplicationInfo(mApplication);
+        if (applicationInfo != null && applicationInfo.metaData != null) {
+            if (mDesignWidthInDp <= 0 && applicationInfo.metaData.containsKey(KEY_DESIGN_WIDTH_IN_DP)) {
+                mDesignWidthInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_WIDTH_IN_DP);
+            }
+            if (mDesignHeightInDp <= 0 && applicationInfo.metaData.containsKey(KEY_DESIGN_HEIGHT_IN_DP)) {
+                mDesignHeightInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_HEIGHT_IN_DP);
+            }
+        }
+        setDefaultDesignSize();
+        if (traced) {
+            AutoSizeTrace.endSection();
+        }
+        mInitPhaseNanos[InitTimings.PHASE_META_DATA] = System.nanoTime() - start;
+        if (AutoSizeLog.isDebug()) {
+            AutoSizeLog.d("designWidthInDp = %d, designHeightInDp = %d", mDesignWidthInDp, mDesignHeightInDp);
+        }
+    }
+
+    /**
+     * 读取编译期生成的设计图尺寸 (R.integer.autosize_design_width_in_dp 和 R.integer.autosize_design_height_in_dp)
+     * 这些资源由 autosize/design-size.gradle 根据 AndroidManifest 中的 Meta 信息生成, 读取资源不需要 IPC 调用
+     * 不会覆盖使用者主动设置的值
+     *
+     * @param context {@link Context}
+     * @return {@code true} 表示设计图尺寸已经在编译期确定, 不再需要读取 Meta 信息
+     */
+    private boolean loadBakedDesignSize(Context context) {
+        Resources resources = context.getResources();
+        int designWidthInDp = resources.getInteger(R.integer.autosize_design_width_in_dp);
+        int designHeightInDp = resources.getInteger(R.integer.autosize_design_height_in_dp);
+        if (mDesignWidthInDp <= 0 && designWidthInDp > 0) {
+            mDesignWidthInDp = designWidthInDp;
+        }
+        if (mDesignHeightInDp <= 0 && designHeightInDp > 0) {
+            mDesignHeightInDp = designHeightInDp;
+        }
+        return resources.getBoolean(R.bool.autosize_design_size_baked) || (designWidthInDp > 0 && designHeightInDp > 0);
+    }
+
+    /**
+     * 获取屏幕尺寸, 不会覆盖使用者主动设置的值, 调用规则与 {@link #resolveDesignSize()} 相同
+     */
+    private void resolveScreenSize() {
+        long start = System.nanoTime();
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_SCREEN_SIZE);
+        mScreenSizeTracker.start();
+        if (mScreenWidth <= 0) {
+            mScreenWidth = mScreenSizeTracker.getWidth();
+        }
+        if (mScreenHeight <= 0) {
+            mScreenHeight = mScreenSizeTracker.getHeight();
+        }
+        if (traced) {
+            AutoSizeTrace.endSection();
+        }
+        mInitPhaseNanos[InitTimings.PHASE_SCREEN_SIZE] = System.nanoTime() - start;
+    }
+
+    /**
+     * 获取状态栏高度, 调用规则与 {@link #resolveDesignSize()} 相同
+     */
+    private void resolveStatusBarHeight() {
+        long start = System.nanoTime();
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_STATUS_BAR_HEIGHT);
+        mStatusBarHeight = ScreenUtils.getStatusBarHeight();
+        isStatusBarHeightResolved = true;
+        if (traced) {
+            AutoSizeTrace.endSection();
+        }
+        mInitPhaseNanos[InitTimings.PHASE_STATUS_BAR_HEIGHT] = System.nanoTime() - start;
+    }
+
+    /**
+     * 检测所有已注册的 {@link ResourcesPatcher} 是否需要兼容当前的 ROM (如 Miui)
+     */
+    private void resolveResourcesPatchers() {
+        long start = System.nanoTime();
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_INIT_MIUI);
+        mResourcesPatchers.detect(mApplication.getResources());
+        if (traced) {
+            AutoSizeTrace.endSection();
+        }
+        mInitPhaseNanos[InitTimings.PHASE_MIUI] = System.nanoTime() - start;
+    }
+
+    /**
+     * 返回初始化时各个阶段耗时的快照, 延迟初始化时, 还没有执行的阶段耗时为 {@code -1}
+     *
+     * @return {@link InitTimings}
+     */
+    public InitTimings getInitTimings() {
+        return new InitTimings(isDeferredInit, mInitPhaseNanos);
+    }
+
     /**
      * 重新开始框架的运行
      * 框架具有 热插拔 特性, 支持在项目运行中动态停止和重新启动适配功能
@@ -362,7 +599,10 @@ public final class AutoSizeConfig {
      * @see #isUseDeviceSize 详情请查看这个字段的注释
      */
     public AutoSizeConfig setUseDeviceSize(boolean useDeviceSize) {
-        isUseDeviceSize = useDeviceSize;
+        synchronized (this) {
+            isUseDeviceSize = useDeviceSize;
+            invalidateSnapshot();
+        }
         return this;
     }
 
@@ -376,6 +616,29 @@ public final class AutoSizeConfig {
         return this;
     }
 
+    /**
+     * 替换获取屏幕尺寸、窗口尺寸和状态栏高度的 {@link ScreenMetricsProvider}, 默认为 {@link me.jessyan.autosize.utils.DefaultScreenMetricsProvider}
+     * 一般在单元测试或基准测试中注入固定的屏幕尺寸时使用, 需要在初始化之前调用才能影响初始化时读取的屏幕尺寸
+     *
+     * @param provider {@link ScreenMetricsProvider}
+     */
+    public AutoSizeConfig setScreenMetricsProvider(ScreenMetricsProvider provider) {
+        ScreenUtils.setScreenMetricsProvider(provider);
+        return this;
+    }
+
+    /**
+     * 是否在 Perfetto 或 Systrace 中输出 AndroidAutoSize 的 Trace 片段, 详情请查看 {@link AutoSizeTrace}
+     * 需要在初始化之前调用才能记录初始化各个阶段的耗时, 所以需要先在 AndroidManifest 中移除 {@link InitProvider}
+     * 然后在 {@link Application#onCreate()} 中开启后再调用 {@link AutoSize#checkAndInit(Application)} 或 {@link AutoSize#initDeferred(Application)}
+     *
+     * @param trace {@code true} 为输出
+     */
+    public AutoSizeConfig setTrace(boolean trace) {
+        AutoSizeTrace.setEnabled(trace);
+        return this;
+    }
+
     /**
      * 是否让框架支持自定义 Fragment 的适配参数, 由于这个需求是比较少见的, 所以须要使用者手动开启
      *
@@ -413,6 +676,44 @@ public final class AutoSizeConfig {
         return mExternalAdaptManager;
     }
 
+    /**
+     * 注册由 autosize-compiler 根据 {@link me.jessyan.autosize.annotation.AutoSizeTarget} 和
+     * {@link me.jessyan.autosize.annotation.CancelAutoSize} 生成的 {@link AdaptRegistry}
+     * 多模块项目中每个模块生成的 {@link AdaptRegistry} 都需要注册, 先注册的优先级更高
+     *
+     * @param registry {@link AdaptRegistry}
+     */
+    public AutoSizeConfig addAdaptRegistry(AdaptRegistry registry) {
+        Preconditions.checkNotNull(registry, "registry == null");
+        synchronized (this) {
+            AdaptRegistry[] registries = Arrays.copyOf(mAdaptRegistries, mAdaptRegistries.length + 1);
+            registries[registries.length - 1] = registry;
+            mAdaptRegistries = registries;
+        }
+        return this;
+    }
+
+    /**
+     * 返回所有已注册的 {@link AdaptRegistry}, 请不要修改返回的数组
+     * 每次调用 {@link #addAdaptRegistry(AdaptRegistry)} 都会返回一个新的数组实例, 所以可以通过比较实例判断是否有新的注册
+     *
+     * @return 所有已注册的 {@link AdaptRegistry}
+     */
+    AdaptRegistry[] getAdaptRegistries() {
+        return mAdaptRegistries;
+    }
+
+    /**
+     * 添加 {@link ResourcesPatcher}, 用来兼容修改了 {@link Resources} 的 ROM, 框架默认已经添加了 {@link MiuiResourcesPatcher}
+     * 初始化之后添加也会立即检测是否需要兼容当前的 ROM
+     *
+     * @param patcher {@link ResourcesPatcher}
+     */
+    public AutoSizeConfig addResourcesPatcher(ResourcesPatcher patcher) {
+        mResourcesPatchers.add(patcher);
+        return this;
+    }
+
     /**
      * {@link UnitsManager} 用来管理 AndroidAutoSize 支持的所有单位, AndroidAutoSize 支持五种单位 (dp、sp、pt、in、mm)
      *
@@ -455,6 +756,14 @@ public final class AutoSizeConfig {
      * @return {@link #mScreenWidth}
      */
     public int getScreenWidth() {
+        if (isDeferredInit && mScreenWidth <= 0) {
+            synchronized (this) {
+                if (mScreenWidth <= 0) {
+                    resolveScreenSize();
+                    invalidateSnapshot();
+                }
+            }
+        }
         return mScreenWidth;
     }
 
@@ -464,15 +773,196 @@ public final class AutoSizeConfig {
      * @return {@link #mScreenHeight}
      */
     public int getScreenHeight() {
+        if (isDeferredInit && (mScreenHeight <= 0 || (!isUseDeviceSize() && !isStatusBarHeightResolved))) {
+            synchronized (this) {
+                if (mScreenHeight <= 0) {
+                    resolveScreenSize();
+                }
+                if (!isUseDeviceSize() && !isStatusBarHeightResolved) {
+                    resolveStatusBarHeight();
+                }
+                invalidateSnapshot();
+            }
+        }
         return isUseDeviceSize() ? mScreenHeight : mScreenHeight - mStatusBarHeight;
     }
 
+    /**
+     * 返回 {@code activity} 所在窗口的宽度, 在分屏、自由窗口、折叠屏以及副屏上返回的是窗口自身的宽度
+     * 窗口尺寸没有变化时不会重新获取, 如果主动调用过 {@link #setScreenWidth(int)} 或 {@link #setScreenHeight(int)}, 则返回 {@link #getScreenWidth()}
+     * 只能在主线程中调用
+     *
+     * @param activity {@link Activity}
+     * @return 窗口宽度
+     */
+    public int getScreenWidth(Activity activity) {
+        Preconditions.checkNotNull(activity, "activity == null");
+        return getScreenWidth(activity, getSnapshot());
+    }
+
+    int getScreenWidth(Activity activity, ConfigSnapshot snapshot) {
+        if (snapshot.isCustomScreenSize) {
+            return snapshot.screenWidth;
+        }
+        return mWindowSizeTracker.obtain(activity).getWidth();
+    }
+
+    /**
+     * 返回 {@code activity} 所在窗口的高度, 如果 {@link #isUseDeviceSize} 为 {@code false}, 会减去窗口顶部被状态栏 (以及刘海) 占用的高度
+     * 状态栏高度与窗口尺寸一起按照屏幕的旋转方向缓存, 不同的系统版本获取方式不同:
+     * Android 11 及以上通过 WindowMetrics 获取, 分屏时位于下半部分的窗口不会减去状态栏高度
+     * Android 6.0 ~ 10 在窗口 attach 之后通过 {@link android.view.View#getRootWindowInsets()} 获取, attach 之前 (包括第一次适配时)
+     * 以及更低的版本使用状态栏的默认高度, 此时分屏时位于下半部分的窗口同样会减去状态栏高度, attach 之后下一次适配时会重新获取
+     * 如果主动调用过 {@link #setScreenWidth(int)} 或 {@link #setScreenHeight(int)}, 则返回 {@link #getScreenHeight()}
+     * 只能在主线程中调用
+     *
+     * @param activity {@link Activity}
+     * @return 窗口高度
+     * @see #getScreenWidth(Activity)
+     */
+    public int getScreenHeight(Activity activity) {
+        Preconditions.checkNotNull(activity, "activity == null");
+        return getScreenHeight(activity, getSnapshot());
+    }
+
+    int getScreenHeight(Activity activity, ConfigSnapshot snapshot) {
+        if (snapshot.isCustomScreenSize) {
+            return snapshot.screenHeight;
+        }
+        return getScreenHeight(mWindowSizeTracker.obtain(activity), snapshot);
+    }
+
+    /**
+     * 返回 {@code resources} 所属 {@link Activity} 所在窗口的宽度, 供 {@link AutoSizeCompat} 使用
+     * {@code resources} 不属于任何已经适配过的 {@link Activity} 时 (如 Application、Dialog 的 {@link Resources}), 返回 {@link #getScreenWidth()}
+     *
+     * @param resources {@link Resources}
+     * @param snapshot  本次适配使用的 {@link ConfigSnapshot}
+     * @return 窗口宽度
+     */
+    int getScreenWidth(Resources resources, ConfigSnapshot snapshot) {
+        WindowSizeTracker.WindowSize windowSize = snapshot.isCustomScreenSize ? null : mWindowSizeTracker.obtain(resources);
+        return windowSize == null ? snapshot.screenWidth : windowSize.getWidth();
+    }
+
+    /**
+     * 返回 {@code resources} 所属 {@link Activity} 所在窗口的高度, 规则与 {@link #getScreenHeight(Activity)} 相同
+     *
+     * @param resources {@link Resources}
+     * @param snapshot  本次适配使用的 {@link ConfigSnapshot}
+     * @return 窗口高度
+     * @see #getScreenWidth(Resources, ConfigSnapshot)
+     */
+    int getScreenHeight(Resources resources, ConfigSnapshot snapshot) {
+        WindowSizeTracker.WindowSize windowSize = snapshot.isCustomScreenSize ? null : mWindowSizeTracker.obtain(resources);
+        return windowSize == null ? snapshot.screenHeight : getScreenHeight(windowSize, snapshot);
+    }
+
+    private static int getScreenHeight(WindowSizeTracker.WindowSize windowSize, ConfigSnapshot snapshot) {
+        if (snapshot.isUseDeviceSize) {
+            return windowSize.getHeight();
+        }
+        //使用者主动设置过状态栏高度时以使用者设置的为准
+        return windowSize.getHeight() - (snapshot.customStatusBarHeight > 0 ? snapshot.customStatusBarHeight
+                : windowSize.getStatusBarHeight());
+    }
+
+    /**
+     * 返回记录每个 {@link Activity} 窗口尺寸的 {@link WindowSizeTracker}, 只能在主线程中使用
+     */
+    WindowSizeTracker getWindowSizeTracker() {
+        return mWindowSizeTracker;
+    }
+
+    /**
+     * 返回当前配置的不可变快照, 配置没有被修改时永远返回同一个实例, 只有一次 volatile 读取
+     * 延迟初始化时, 第一次调用会完成设计图尺寸、屏幕尺寸等信息的获取
+     *
+     * @return {@link ConfigSnapshot}
+     */
+    ConfigSnapshot getSnapshot() {
+        ConfigSnapshot snapshot = mSnapshot;
+        if (snapshot == null || snapshot.unitsVersion != mUnitsManager.getVersion()) {
+            synchronized (this) {
+                snapshot = mSnapshot;
+                if (snapshot == null || snapshot.unitsVersion != mUnitsManager.getVersion()) {
+                    if (snapshot != null) {
+                        //UnitsManager 被修改了, 同样需要递增版本号
+                        invalidateCache();
+                    }
+                    snapshot = createSnapshot();
+                    mSnapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 创建快照, 调用者必须持有 {@code this} 锁
+     *
+     * @return {@link ConfigSnapshot}
+     */
+    private ConfigSnapshot createSnapshot() {
+        //先读取版本号再复制, 复制过程中发生的修改会让版本号改变, 下次获取时重新创建
+        int unitsVersion = mUnitsManager.getVersion();
+        UnitsManager unitsManager = ConfigSnapshot.copyOf(mUnitsManager);
+        if (isDeferredInit && (mDesignWidthInDp <= 0 || mDesignHeightInDp <= 0)) {
+            resolveDesignSize();
+        }
+        float fontScale;
+        if (privateFontScale > 0) {
+            fontScale = privateFontScale;
+        } else {
+            fontScale = isExcludeFontScale ? 1 : mInitScaledDensity * 1.0f / mInitDensity;
+        }
+        DisplayMetricsInfo initInfo = new ImmutableDisplayMetricsInfo(mInitDensity, mInitDensityDpi, mInitScaledDensity
+                , ConfigSnapshot.toInitInfoXdpi(mInitXdpi, unitsManager.getSupportSubunits()), mInitScreenWidthDp, mInitScreenHeightDp);
+        return new ConfigSnapshot(mVersion, mDesignWidthInDp, mDesignHeightInDp, getScreenWidth(), getScreenHeight(), isCustomScreenSize
+                , isUseDeviceSize, isCustomStatusBarHeight ? mStatusBarHeight : 0, fontScale, unitsManager, unitsVersion, initInfo);
+    }
+
+    /**
+     * 丢弃当前的快照, 调用者必须持有 {@code this} 锁
+     * 只用于修改了缓存 key 中已经包含的配置 (如屏幕尺寸、设计图尺寸), 缓存的适配结果仍然有效
+     */
+    private void invalidateSnapshot() {
+        mSnapshot = null;
+    }
+
+    /**
+     * 递增版本号并丢弃当前的快照, 调用者必须持有 {@code this} 锁
+     * 用于修改了不在缓存 key 中, 但会影响适配结果的配置 (如字体缩放、副单位、系统的 density), 之前缓存的适配结果全部失效
+     */
+    private void invalidateCache() {
+        mVersion++;
+        mSnapshot = null;
+    }
+
+    /**
+     * 返回配置的版本号, 每次修改字体缩放、{@link UnitsManager}, 或者系统的字体大小、显示大小 (density) 改变时都会递增
+     * 版本号改变后, 之前缓存的适配结果都会失效; 屏幕尺寸、设计图尺寸本身就是缓存的 key, 修改它们不需要递增版本号
+     *
+     * @return 配置的版本号
+     */
+    public int getVersion() {
+        return getSnapshot().version;
+    }
+
     /**
      * 获取 {@link #mDesignWidthInDp}
      *
      * @return {@link #mDesignWidthInDp}
      */
     public int getDesignWidthInDp() {
+        if (isDeferredInit && mDesignWidthInDp <= 0) {
+            synchronized (this) {
+                if (mDesignWidthInDp <= 0) {
+                    resolveDesignSize();
+                    invalidateSnapshot();
+                }
+            }
+        }
         Preconditions.checkArgument(mDesignWidthInDp > 0, "you must set " + KEY_DESIGN_WIDTH_IN_DP + "  in your AndroidManifest file");
         return mDesignWidthInDp;
     }
@@ -483,6 +973,14 @@ public final class AutoSizeConfig {
      * @return {@link #mDesignHeightInDp}
      */
     public int getDesignHeightInDp() {
+        if (isDeferredInit && mDesignHeightInDp <= 0) {
+            synchronized (this) {
+                if (mDesignHeightInDp <= 0) {
+                    resolveDesignSize();
+                    invalidateSnapshot();
+                }
+            }
+        }
         Preconditions.checkArgument(mDesignHeightInDp > 0, "you must set " + KEY_DESIGN_HEIGHT_IN_DP + "  in your AndroidManifest file");
         return mDesignHeightInDp;
     }
@@ -551,21 +1049,35 @@ public final class AutoSizeConfig {
     }
 
     /**
-     * 返回 {@link #isMiui}
+     * 是否是 Miui 系统
      *
-     * @return {@link #isMiui}
+     * @return {@code true} 为 Miui 系统
      */
     public boolean isMiui() {
-        return isMiui;
+        getResourcesPatchers();
+        return mMiuiResourcesPatcher.isMiui();
     }
 
     /**
-     * 返回 {@link #mTmpMetricsField}
+     * 返回 Miui 系统中的 mTmpMetrics 字段
      *
-     * @return {@link #mTmpMetricsField}
+     * @return Miui 系统中的 mTmpMetrics 字段
      */
     public Field getTmpMetricsField() {
-        return mTmpMetricsField;
+        getResourcesPatchers();
+        return mMiuiResourcesPatcher.getTmpMetricsField();
+    }
+
+    /**
+     * 返回 {@link #mResourcesPatchers}, 延迟初始化时会在第一次调用时检测
+     *
+     * @return {@link ResourcesPatcherRegistry}
+     */
+    ResourcesPatcherRegistry getResourcesPatchers() {
+        if (isDeferredInit && !mResourcesPatchers.isDetected()) {
+            resolveResourcesPatchers();
+        }
+        return mResourcesPatchers;
     }
 
     /**
@@ -595,7 +1107,10 @@ public final class AutoSizeConfig {
      * @param excludeFontScale 是否屏蔽
      */
     public AutoSizeConfig setExcludeFontScale(boolean excludeFontScale) {
-        isExcludeFontScale = excludeFontScale;
+        synchronized (this) {
+            isExcludeFontScale = excludeFontScale;
+            invalidateCache();
+        }
         return this;
     }
 
@@ -606,7 +1121,10 @@ public final class AutoSizeConfig {
      * @param fontScale 字体大小放大的比例, 设为 0 则取消此功能
      */
     public AutoSizeConfig setPrivateFontScale(float fontScale) {
-        privateFontScale = fontScale;
+        synchronized (this) {
+            privateFontScale = fontScale;
+            invalidateCache();
+        }
         return this;
     }
 
@@ -627,7 +1145,11 @@ public final class AutoSizeConfig {
      */
     public AutoSizeConfig setScreenWidth(int screenWidth) {
         Preconditions.checkArgument(screenWidth > 0, "screenWidth must be > 0");
-        mScreenWidth = screenWidth;
+        synchronized (this) {
+            mScreenWidth = screenWidth;
+            isCustomScreenSize = true;
+            invalidateSnapshot();
+        }
         return this;
     }
 
@@ -638,7 +1160,11 @@ public final class AutoSizeConfig {
      */
     public AutoSizeConfig setScreenHeight(int screenHeight) {
         Preconditions.checkArgument(screenHeight > 0, "screenHeight must be > 0");
-        mScreenHeight = screenHeight;
+        synchronized (this) {
+            mScreenHeight = screenHeight;
+            isCustomScreenSize = true;
+            invalidateSnapshot();
+        }
         return this;
     }
 
@@ -649,7 +1175,10 @@ public final class AutoSizeConfig {
      */
     public AutoSizeConfig setDesignWidthInDp(int designWidthInDp) {
         Preconditions.checkArgument(designWidthInDp > 0, "designWidthInDp must be > 0");
-        mDesignWidthInDp = designWidthInDp;
+        synchronized (this) {
+            mDesignWidthInDp = designWidthInDp;
+            invalidateSnapshot();
+        }
         return this;
     }
 
@@ -660,7 +1189,10 @@ public final class AutoSizeConfig {
      */
     public AutoSizeConfig setDesignHeightInDp(int designHeightInDp) {
         Preconditions.checkArgument(designHeightInDp > 0, "designHeightInDp must be > 0");
-        mDesignHeightInDp = designHeightInDp;
+        synchronized (this) {
+            mDesignHeightInDp = designHeightInDp;
+            invalidateSnapshot();
+        }
         return this;
     }
 
@@ -671,12 +1203,163 @@ public final class AutoSizeConfig {
      */
     public AutoSizeConfig setStatusBarHeight(int statusBarHeight) {
         Preconditions.checkArgument(statusBarHeight > 0, "statusBarHeight must be > 0");
-        mStatusBarHeight = statusBarHeight;
+        synchronized (this) {
+            mStatusBarHeight = statusBarHeight;
+            isStatusBarHeightResolved = true;
+            isCustomStatusBarHeight = true;
+            invalidateSnapshot();
+        }
         return this;
     }
 
     /**
-     * 获取使用者在 AndroidManifest 中填写的 Meta 信息
+     * 设置适配结果缓存的容量上限, 默认为 {@code 64}, 超出上限时会淘汰最久未使用的结果
+     * 如果项目中大量使用了动态的 {@link me.jessyan.autosize.internal.CustomAdapt#getSizeInDp()}, 可以根据
+     * {@link AutoSize#getCacheStats()} 统计出的命中率和淘汰次数调整此值, 只能在主线程中调用
+     *
+     * @param capacity 最多缓存的适配结果数量
+     */
+    public AutoSizeConfig setCacheCapacity(int capacity) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be > 0");
+        AutoSizeEngine.setCacheCapacity(capacity);
+        return this;
+    }
+
+    /**
+     * 返回适配结果缓存的容量上限
+     *
+     * @return 最多缓存的适配结果数量
+     */
+    public int getCacheCapacity() {
+        return AutoSizeEngine.getCacheCapacity();
+    }
+
+    /**
+     * 是否统计每个 {@link Activity}、Fragment 的适配数据, 包括适配次数、缓存命中次数、赋值次数和适配耗时, 默认关闭
+     * 开启后通过 {@link AutoSize#getAdaptMetrics()} 获取统计结果, 可以据此找出适配开销最大的页面, 只能在主线程中调用
+     *
+     * @param metricsEnabled {@code true} 为开启统计
+     */
+    public AutoSizeConfig setMetricsEnabled(boolean metricsEnabled) {
+        Preconditions.checkMainThread();
+        AutoSizeEngine.getMetrics().setEnabled(metricsEnabled);
+        return this;
+    }
+
+    /**
+     * 是否已经开启适配数据的统计
+     *
+     * @return {@code true} 为已经开启
+     */
+    public boolean isMetricsEnabled() {
+        return AutoSizeEngine.getMetrics().isEnabled();
+    }
+
+    /**
+     * 返回一个新的 {@link ConfigEditor}, 用于一次性修改多项配置, 并在修改后让所有还没有被销毁的 {@link Activity} 重新适配一次
+     *
+     * @return {@link ConfigEditor}
+     */
+    public ConfigEditor edit() {
+        return new ConfigEditor(this);
+    }
+
+    /**
+     * 在同一把锁中让 {@link ConfigEditor} 暂存的所有修改整体生效, 然后在主线程中重新适配所有还没有被销毁的 {@link Activity}
+     *
+     * @param editor {@link ConfigEditor}
+     */
+    void commit(ConfigEditor editor) {
+        synchronized (this) {
+            if (editor.designWidthInDp != null) {
+                mDesignWidthInDp = editor.designWidthInDp;
+            }
+            if (editor.designHeightInDp != null) {
+                mDesignHeightInDp = editor.designHeightInDp;
+            }
+            if (editor.isBaseOnWidth != null) {
+                isBaseOnWidth = editor.isBaseOnWidth;
+            }
+            if (editor.isUseDeviceSize != null) {
+                isUseDeviceSize = editor.isUseDeviceSize;
+            }
+            if (editor.screenWidth != null) {
+                mScreenWidth = editor.screenWidth;
+                isCustomScreenSize = true;
+            }
+            if (editor.screenHeight != null) {
+                mScreenHeight = editor.screenHeight;
+                isCustomScreenSize = true;
+            }
+            if (editor.statusBarHeight != null) {
+                mStatusBarHeight = editor.statusBarHeight;
+                isStatusBarHeightResolved = true;
+                isCustomStatusBarHeight = true;
+            }
+            boolean cacheInvalid = false;
+            if (editor.isExcludeFontScale != null) {
+                isExcludeFontScale = editor.isExcludeFontScale;
+                cacheInvalid = true;
+            }
+            if (editor.privateFontScale != null) {
+                privateFontScale = editor.privateFontScale;
+                cacheInvalid = true;
+            }
+            if (editor.isSupportDP != null) {
+                mUnitsManager.setSupportDP(editor.isSupportDP);
+                cacheInvalid = true;
+            }
+            if (editor.isSupportSP != null) {
+                mUnitsManager.setSupportSP(editor.isSupportSP);
+                cacheInvalid = true;
+            }
+            if (editor.isSupportScreenSizeDP != null) {
+                mUnitsManager.setSupportScreenSizeDP(editor.isSupportScreenSizeDP);
+                cacheInvalid = true;
+            }
+            if (editor.supportSubunits != null) {
+                mUnitsManager.setSupportSubunits(editor.supportSubunits);
+                cacheInvalid = true;
+            }
+            if (editor.subunitsDesignWidth != null) {
+                mUnitsManager.setDesignSize(editor.subunitsDesignWidth, editor.subunitsDesignHeight);
+                cacheInvalid = true;
+            }
+            if (cacheInvalid) {
+                invalidateCache();
+            } else {
+                invalidateSnapshot();
+            }
+        }
+        if (mActivityLifecycleCallbacks == null) {
+            return;
+        }
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            readaptActivities();
+        } else {
+            new Handler(Looper.getMainLooper()).post(new Runnable() {
+                @Override
+                public void run() {
+                    readaptActivities();
+                }
+            });
+        }
+    }
+
+    /**
+     * 重新适配所有还没有被销毁的 {@link Activity}, 框架停止运行时不做任何处理, 只能在主线程中调用
+     */
+    private void readaptActivities() {
+        synchronized (AutoSizeConfig.class) {
+            if (isStop) {
+                return;
+            }
+        }
+        mActivityLifecycleCallbacks.readaptActivities();
+    }
+
+    /**
+     * 获取使用者在 AndroidManifest 中填写的 Meta 信息, 只有在没有使用 autosize/design-size.gradle 时才会调用
      * <p>
      * Example usage:
      * <pre>
@@ -692,23 +1375,35 @@ public final class AutoSizeConfig {
         new Thread(new Runnable() {
             @Override
             public void run() {
-                PackageManager packageManager = context.getPackageManager();
-                ApplicationInfo applicationInfo;
-                try {
-                    applicationInfo = packageManager.getApplicationInfo(context
-                            .getPackageName(), PackageManager.GET_META_DATA);
-                    if (applicationInfo != null && applicationInfo.metaData != null) {
+                ApplicationInfo applicationInfo = loadApplicationInfo(context);
+                if (applicationInfo != null && applicationInfo.metaData != null) {
+                    //与 setDesignWidthInDp 等方法一样在锁内修改并丢弃快照, 否则主线程可能一直使用读取前的快照
+                    synchronized (AutoSizeConfig.this) {
                         if (applicationInfo.metaData.containsKey(KEY_DESIGN_WIDTH_IN_DP)) {
                             mDesignWidthInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_WIDTH_IN_DP);
                         }
                         if (applicationInfo.metaData.containsKey(KEY_DESIGN_HEIGHT_IN_DP)) {
                             mDesignHeightInDp = (int) applicationInfo.metaData.get(KEY_DESIGN_HEIGHT_IN_DP);
                         }
+                        invalidateSnapshot();
                     }
-                } catch (PackageManager.NameNotFoundException e) {
-                    e.printStackTrace();
                 }
             }
         }).start();
     }
+
+    /**
+     * 获取包含 Meta 信息的 {@link ApplicationInfo}, 这是一次 IPC 调用
+     *
+     * @param context {@link Context}
+     * @return 获取失败时返回 {@code null}
+     */
+    private static ApplicationInfo loadApplicationInfo(Context context) {
+        try {
+            return context.getPackageManager().getApplicationInfo(context.getPackageName(), PackageManager.GET_META_DATA);
+        } catch (PackageManager.NameNotFoundException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 }
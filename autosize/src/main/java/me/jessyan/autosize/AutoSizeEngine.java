@@ -0,0 +1,290 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import me.jessyan.autosize.core.DensityCache;
+import me.jessyan.autosize.unit.UnitsManager;
+import me.jessyan.autosize.utils.AutoSizeTrace;
+import me.jessyan.autosize.utils.Preconditions;
+
+/**
+ * ================================================
+ * AndroidAutoSize 的适配引擎, {@link AutoSize} 和 {@link AutoSizeCompat} 都委托给这里完成计算和赋值
+ * 两个入口共用同一份缓存和同一条赋值路径, 保证同一进程中无论从哪个入口进入, 得到的适配结果都完全一致
+ * <p>
+ * 赋值的对象可以是 {@link Activity} (取其 {@link Resources})、{@link Resources} 或者单独的 {@link DisplayMetrics}
+ * <p>
+ * 每次适配只通过 {@link AutoSizeConfig#getSnapshot()} 读取一次配置, 之后的计算和赋值都使用这份 {@link ConfigSnapshot}
+ * 所以即使在适配过程中配置被其他线程修改, 也不会出现一部分使用旧配置、一部分使用新配置的情况
+ * ================================================
+ */
+final class AutoSizeEngine {
+    private static final AdaptMetricsRecorder mMetrics = new AdaptMetricsRecorder();
+    private static final DisplayMetricsInfoCache mCache = new DisplayMetricsInfoCache(DensityCache.DEFAULT_MAX_SIZE, mMetrics);
+    private static final AdaptStateTracker mAdaptState = new AdaptStateTracker();
+    private static final WriteTargetCache mWriteTargets = new WriteTargetCache();
+
+    private AutoSizeEngine() {
+        throw new IllegalStateException("you can't instantiate me!");
+    }
+
+    /**
+     * 修改缓存的容量上限
+     *
+     * @param capacity 最多缓存的 {@link DisplayMetricsInfo} 数量
+     */
+    static void setCacheCapacity(int capacity) {
+        Preconditions.checkMainThread();
+        mCache.resize(capacity);
+    }
+
+    static int getCacheCapacity() {
+        return mCache.maxSize();
+    }
+
+    /**
+     * 返回缓存的统计数据快照
+     *
+     * @return {@link DensityCacheStats}
+     */
+    static DensityCacheStats getCacheStats() {
+        return mCache.getStats();
+    }
+
+    /**
+     * 如果 {@code sizeInDp} 小于等于 0, 则使用在 AndroidManifest 上填写的设计图尺寸
+     *
+     * @param sizeInDp      {@link me.jessyan.autosize.internal.CustomAdapt} 或
+     *                      {@link me.jessyan.autosize.external.ExternalAdaptInfo} 提供的设计图尺寸
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 最终用于适配的设计图尺寸
+     */
+    static float resolveSizeInDp(float sizeInDp, boolean isBaseOnWidth) {
+        if (sizeInDp > 0) {
+            return sizeInDp;
+        }
+        return AutoSizeConfig.getInstance().getSnapshot().resolveSizeInDp(sizeInDp, isBaseOnWidth);
+    }
+
+    /**
+     * 返回副单位使用的设计图尺寸, 如果 {@link me.jessyan.autosize.unit.UnitsManager} 中没有设置, 则与 {@code sizeInDp} 相同
+     *
+     * @param sizeInDp      设计图尺寸
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 副单位使用的设计图尺寸
+     */
+    static float getSubunitsDesignSize(float sizeInDp, boolean isBaseOnWidth) {
+        return AutoSizeConfig.getInstance().getSnapshot().getSubunitsDesignSize(sizeInDp, isBaseOnWidth);
+    }
+
+    /**
+     * 从缓存中获取适配后的 {@link DisplayMetricsInfo}, 未命中时计算并存入缓存, 详情请查看 {@link DisplayMetricsInfoCache}
+     *
+     * @param snapshot      本次适配使用的 {@link ConfigSnapshot}
+     * @param sizeInDp      设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @param screenWidth   屏幕 (窗口) 宽度
+     * @param screenHeight  屏幕 (窗口) 高度
+     * @return {@link DisplayMetricsInfo}
+     */
+    private static DisplayMetricsInfo obtainDisplayMetricsInfo(ConfigSnapshot snapshot, float sizeInDp, boolean isBaseOnWidth
+            , int screenWidth, int screenHeight) {
+        return mCache.obtain(snapshot.version, sizeInDp, snapshot.getSubunitsDesignSize(sizeInDp, isBaseOnWidth), isBaseOnWidth
+                , snapshot.isUseDeviceSize, screenWidth, screenHeight, snapshot.fontScale);
+    }
+
+    /**
+     * 使用 {@code activity} 所在窗口的尺寸计算, 并将适配结果赋值给 {@code activity} 的 {@link Resources}
+     *
+     * @param activity      {@link Activity}
+     * @param sizeInDp      设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 本次使用的 {@link DisplayMetricsInfo}
+     * @see AutoSizeConfig#getScreenWidth(Activity)
+     */
+    static DisplayMetricsInfo autoConvertDensity(Activity activity, float sizeInDp, boolean isBaseOnWidth) {
+        Preconditions.checkNotNull(activity, "activity == null");
+        Preconditions.checkMainThread();
+
+        AutoSizeConfig config = AutoSizeConfig.getInstance();
+        ConfigSnapshot snapshot = config.getSnapshot();
+        DisplayMetricsInfo displayMetricsInfo = obtainDisplayMetricsInfo(snapshot, sizeInDp, isBaseOnWidth
+                , config.getScreenWidth(activity, snapshot), config.getScreenHeight(activity, snapshot));
+        apply(snapshot, activity.getResources(), displayMetricsInfo);
+        return displayMetricsInfo;
+    }
+
+    /**
+     * 计算并将适配结果赋值给 {@link Resources}
+     * {@code resources} 属于已经适配过的 {@link Activity} 时使用该 {@link Activity} 所在窗口的尺寸, 与 {@link #autoConvertDensity(Activity, float, boolean)}
+     * 的结果一致; 否则 (如 Application、Dialog 的 {@link Resources}) 使用整个屏幕的尺寸
+     *
+     * @param resources     {@link Resources}
+     * @param sizeInDp      设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 本次使用的 {@link DisplayMetricsInfo}
+     */
+    static DisplayMetricsInfo autoConvertDensity(Resources resources, float sizeInDp, boolean isBaseOnWidth) {
+        Preconditions.checkNotNull(resources, "resources == null");
+        Preconditions.checkMainThread();
+
+        AutoSizeConfig config = AutoSizeConfig.getInstance();
+        ConfigSnapshot snapshot = config.getSnapshot();
+        DisplayMetricsInfo displayMetricsInfo = obtainDisplayMetricsInfo(snapshot, sizeInDp, isBaseOnWidth
+                , config.getScreenWidth(resources, snapshot), config.getScreenHeight(resources, snapshot));
+        apply(snapshot, resources, displayMetricsInfo);
+        return displayMetricsInfo;
+    }
+
+    /**
+     * 计算并将适配结果只赋值给单独的 {@link DisplayMetrics}, 不会修改 {@link android.app.Application} 的 {@link DisplayMetrics}
+     * 无法得知 {@code displayMetrics} 属于哪个窗口, 所以总是使用整个屏幕的尺寸
+     *
+     * @param displayMetrics {@link DisplayMetrics}
+     * @param sizeInDp       设计图上的设计尺寸, 单位 dp
+     * @param isBaseOnWidth  是否按照宽度进行等比例适配
+     * @return 本次使用的 {@link DisplayMetricsInfo}
+     */
+    static DisplayMetricsInfo autoConvertDensity(DisplayMetrics displayMetrics, float sizeInDp, boolean isBaseOnWidth) {
+        Preconditions.checkNotNull(displayMetrics, "displayMetrics == null");
+        Preconditions.checkMainThread();
+
+        ConfigSnapshot snapshot = AutoSizeConfig.getInstance().getSnapshot();
+        DisplayMetricsInfo displayMetricsInfo = obtainDisplayMetricsInfo(snapshot, sizeInDp, isBaseOnWidth
+                , snapshot.screenWidth, snapshot.screenHeight);
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_SET_DENSITY);
+        try {
+            DensityWriter.setDensity(displayMetrics, displayMetricsInfo, snapshot.unitsManager);
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
+        return displayMetricsInfo;
+    }
+
+    /**
+     * 取消适配, 将 {@link Resources} 恢复为最初的 {@link DisplayMetrics}
+     *
+     * @param resources {@link Resources}
+     */
+    static void cancelAdapt(Resources resources) {
+        Preconditions.checkMainThread();
+        mMetrics.onCancelAdapt();
+        ConfigSnapshot snapshot = AutoSizeConfig.getInstance().getSnapshot();
+        apply(snapshot, resources, snapshot.initInfo);
+    }
+
+    /**
+     * 将 {@link DisplayMetricsInfo} 赋值给 {@code resources} 以及 Application 的 {@link Resources}
+     * 如果它们当前的状态已经是这个 {@link DisplayMetricsInfo}, 则跳过赋值
+     * 两个 {@link Resources} 共用的 {@link DisplayMetrics} 和 {@link Configuration} 只会被赋值一次
+     *
+     * @param snapshot  本次适配使用的 {@link ConfigSnapshot}
+     * @param resources {@link Resources}
+     * @param info      {@link DisplayMetricsInfo}
+     */
+    private static void apply(ConfigSnapshot snapshot, Resources resources, DisplayMetricsInfo info) {
+        WriteTargetCache.WriteTargets written = applyIfNeeded(snapshot, resources, info, null);
+        Resources appResources = AutoSizeConfig.getInstance().getApplication().getResources();
+        if (appResources != resources) {
+            applyIfNeeded(snapshot, appResources, info, written);
+        }
+    }
+
+    /**
+     * 将 {@link DisplayMetricsInfo} 赋值给 {@code resources}
+     *
+     * @param snapshot  本次适配使用的 {@link ConfigSnapshot}
+     * @param resources {@link Resources}
+     * @param info      {@link DisplayMetricsInfo}
+     * @param written   本次适配中已经被赋值过的对象, 这些对象不会被再次赋值, 没有则为 {@code null}
+     * @return 本次被赋值的对象, 跳过赋值时返回 {@code null}
+     */
+    private static WriteTargetCache.WriteTargets applyIfNeeded(ConfigSnapshot snapshot, Resources resources
+            , DisplayMetricsInfo info, WriteTargetCache.WriteTargets written) {
+        UnitsManager unitsManager = snapshot.unitsManager;
+        float xdpi = DensityWriter.toSubunitsXdpi(info.getXdpi(), unitsManager.getSupportSubunits());
+        //包含 MIUI 等修改了 Resources 的 ROM 需要额外赋值的 DisplayMetrics, 已按实例去重, 判断是否需要赋值时也要检查它们
+        WriteTargetCache.WriteTargets targets = mWriteTargets.obtain(resources, AutoSizeConfig.getInstance().getResourcesPatchers());
+        if (mAdaptState.isApplied(resources, targets, info, xdpi, unitsManager)) {
+            mAdaptState.markSkipped();
+            mMetrics.onWriteSkipped();
+            return null;
+        }
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_SET_DENSITY);
+        try {
+            for (DisplayMetrics displayMetrics : targets.metrics) {
+                if (written == null || !written.contains(displayMetrics)) {
+                    DensityWriter.setDensity(displayMetrics, info, unitsManager);
+                }
+            }
+            if (unitsManager.isSupportDP() && unitsManager.isSupportScreenSizeDP()
+                    && (written == null || written.configuration != targets.configuration)) {
+                setScreenSizeDp(targets.configuration, info.getScreenWidthDp(), info.getScreenHeightDp());
+                AutoSizeConfig.getInstance().getWindowSizeTracker().onScreenSizeDpWritten(resources
+                        , info.getScreenWidthDp(), info.getScreenHeightDp());
+            }
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
+        mAdaptState.markApplied(resources, info);
+        mMetrics.onWrite();
+        return targets;
+    }
+
+    /**
+     * 返回跳过的赋值次数, 每个 {@link Resources} 计一次
+     */
+    static long getSkippedWriteCount() {
+        return mAdaptState.getSkipCount();
+    }
+
+    /**
+     * 返回实际发生的赋值次数, 每个 {@link Resources} 计一次
+     */
+    static long getWriteCount() {
+        return mAdaptState.getWriteCount();
+    }
+
+    /**
+     * 返回适配的统计数据收集器, 只允许在主线程中使用
+     *
+     * @return {@link AdaptMetricsRecorder}
+     */
+    static AdaptMetricsRecorder getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * Configuration赋值
+     *
+     * @param configuration  {@link Configuration}
+     * @param screenWidthDp  {@link Configuration#screenWidthDp}
+     * @param screenHeightDp {@link Configuration#screenHeightDp}
+     */
+    private static void setScreenSizeDp(Configuration configuration, int screenWidthDp, int screenHeightDp) {
+        configuration.screenWidthDp = screenWidthDp;
+        configuration.screenHeightDp = screenHeightDp;
+    }
+}
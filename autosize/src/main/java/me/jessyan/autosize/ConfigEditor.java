@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+
+import me.jessyan.autosize.unit.Subunits;
+import me.jessyan.autosize.unit.UnitsManager;
+import me.jessyan.autosize.utils.Preconditions;
+
+/**
+ * ================================================
+ * 在运行时一次性修改多项 {@link AutoSizeConfig} 和 {@link UnitsManager} 的配置, 通过 {@link AutoSizeConfig#edit()} 获取
+ * <p>
+ * 直接调用 {@link AutoSizeConfig} 的多个 setter 时, 每个 setter 都会单独生效, 适配可能会读到只修改了一部分的配置
+ * 并且已经显示的 {@link Activity} 不会使用新的配置重新适配
+ * {@link ConfigEditor} 先暂存所有修改, 调用 {@link #commit()} 时才在同一把锁中整体生效, 并让受影响的缓存失效
+ * 之后在主线程中把所有还没有被销毁的 {@link Activity} (以及开启 {@link AutoSizeConfig#setCustomFragment(boolean)} 时其中已经添加的 Fragment) 重新适配一次
+ * <p>
+ * Example usage:
+ * <pre>
+ * AutoSizeConfig.getInstance().edit()
+ *         .setDesignWidthInDp(375)
+ *         .setPrivateFontScale(1.2f)
+ *         .setSupportSubunits(Subunits.MM)
+ *         .commit();
+ * </pre>
+ * <p>
+ * 没有调用过的 setter 不会修改对应的配置, 每个 {@link ConfigEditor} 只能 {@link #commit()} 一次
+ * ================================================
+ */
+public final class ConfigEditor {
+    private final AutoSizeConfig mConfig;
+    Integer designWidthInDp;
+    Integer designHeightInDp;
+    Boolean isBaseOnWidth;
+    Boolean isUseDeviceSize;
+    Boolean isExcludeFontScale;
+    Float privateFontScale;
+    Integer screenWidth;
+    Integer screenHeight;
+    Integer statusBarHeight;
+    Boolean isSupportDP;
+    Boolean isSupportSP;
+    Boolean isSupportScreenSizeDP;
+    Subunits supportSubunits;
+    Float subunitsDesignWidth;
+    Float subunitsDesignHeight;
+    private boolean isCommitted;
+
+    ConfigEditor(AutoSizeConfig config) {
+        mConfig = config;
+    }
+
+    /**
+     * @see AutoSizeConfig#setDesignWidthInDp(int)
+     */
+    public ConfigEditor setDesignWidthInDp(int designWidthInDp) {
+        Preconditions.checkArgument(designWidthInDp > 0, "designWidthInDp must be > 0");
+        this.designWidthInDp = designWidthInDp;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setDesignHeightInDp(int)
+     */
+    public ConfigEditor setDesignHeightInDp(int designHeightInDp) {
+        Preconditions.checkArgument(designHeightInDp > 0, "designHeightInDp must be > 0");
+        this.designHeightInDp = designHeightInDp;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setBaseOnWidth(boolean)
+     */
+    public ConfigEditor setBaseOnWidth(boolean baseOnWidth) {
+        isBaseOnWidth = baseOnWidth;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setUseDeviceSize(boolean)
+     */
+    public ConfigEditor setUseDeviceSize(boolean useDeviceSize) {
+        isUseDeviceSize = useDeviceSize;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setExcludeFontScale(boolean)
+     */
+    public ConfigEditor setExcludeFontScale(boolean excludeFontScale) {
+        isExcludeFontScale = excludeFontScale;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setPrivateFontScale(float)
+     */
+    public ConfigEditor setPrivateFontScale(float fontScale) {
+        privateFontScale = fontScale;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setScreenWidth(int)
+     */
+    public ConfigEditor setScreenWidth(int screenWidth) {
+        Preconditions.checkArgument(screenWidth > 0, "screenWidth must be > 0");
+        this.screenWidth = screenWidth;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setScreenHeight(int)
+     */
+    public ConfigEditor setScreenHeight(int screenHeight) {
+        Preconditions.checkArgument(screenHeight > 0, "screenHeight must be > 0");
+        this.screenHeight = screenHeight;
+        return this;
+    }
+
+    /**
+     * @see AutoSizeConfig#setStatusBarHeight(int)
+     */
+    public ConfigEditor setStatusBarHeight(int statusBarHeight) {
+        Preconditions.checkArgument(statusBarHeight > 0, "statusBarHeight must be > 0");
+        this.statusBarHeight = statusBarHeight;
+        return this;
+    }
+
+    /**
+     * @see UnitsManager#setSupportDP(boolean)
+     */
+    public ConfigEditor setSupportDP(boolean supportDP) {
+        isSupportDP = supportDP;
+        return this;
+    }
+
+    /**
+     * @see UnitsManager#setSupportSP(boolean)
+     */
+    public ConfigEditor setSupportSP(boolean supportSP) {
+        isSupportSP = supportSP;
+        return this;
+    }
+
+    /**
+     * @see UnitsManager#setSupportScreenSizeDP(boolean)
+     */
+    public ConfigEditor setSupportScreenSizeDP(boolean supportScreenSizeDP) {
+        isSupportScreenSizeDP = supportScreenSizeDP;
+        return this;
+    }
+
+    /**
+     * @see UnitsManager#setSupportSubunits(Subunits)
+     */
+    public ConfigEditor setSupportSubunits(Subunits supportSubunits) {
+        this.supportSubunits = Preconditions.checkNotNull(supportSubunits,
+                "The supportSubunits can not be null, use Subunits.NONE instead");
+        return this;
+    }
+
+    /**
+     * 设置副单位的设计图尺寸
+     *
+     * @see UnitsManager#setDesignSize(float, float)
+     */
+    public ConfigEditor setSubunitsDesignSize(float designWidth, float designHeight) {
+        Preconditions.checkArgument(designWidth > 0, "designWidth must be > 0");
+        Preconditions.checkArgument(designHeight > 0, "designHeight must be > 0");
+        subunitsDesignWidth = designWidth;
+        subunitsDesignHeight = designHeight;
+        return this;
+    }
+
+    /**
+     * 让所有暂存的修改整体生效, 然后在主线程中将所有还没有被销毁的 {@link Activity} 使用新的配置重新适配一次
+     * 开启 {@link AutoSizeConfig#setCustomFragment(boolean)} 时, 其中已经添加的 Fragment 也会在 {@link Activity} 之后重新适配
+     * 在主线程中调用时会立即重新适配, 在其他线程中调用时会切换到主线程中进行
+     * 如果框架已经通过 {@link AutoSizeConfig#stop(Activity)} 停止运行, 则只修改配置, 不会重新适配
+     */
+    public void commit() {
+        synchronized (this) {
+            Preconditions.checkState(!isCommitted, "ConfigEditor#commit() can only be called once");
+            isCommitted = true;
+        }
+        mConfig.commit(this);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import me.jessyan.autosize.unit.Subunits;
+import me.jessyan.autosize.unit.UnitsManager;
+import me.jessyan.autosize.utils.Preconditions;
+
+/**
+ * ================================================
+ * {@link AutoSizeConfig} 中所有会影响适配结果的配置的不可变快照, 通过 {@link AutoSizeConfig#getSnapshot()} 获取
+ * <p>
+ * {@link AutoSizeConfig} 的 setter 可以在任意线程中调用, 并且 onConfigurationChanged 等回调也会修改其中的字段
+ * 如果适配时直接读取 {@link AutoSizeConfig}, 一次适配中多次读取可能会读到只修改了一半的配置
+ * 所以每次修改配置后都会丢弃旧的快照, 在下一次适配时重新创建并通过一个 volatile 字段整体发布
+ * {@link AutoSizeEngine} 每次适配只读取一次快照, 之后全部使用快照中的 final 字段, 保证整个适配过程使用的是同一份配置
+ * <p>
+ * {@link UnitsManager} 在修改时不会通知 {@link AutoSizeConfig}, 所以快照中保存的是一份独立的副本, 并记录了复制时的
+ * {@link UnitsManager#getVersion()}, 版本号改变后会重新创建快照
+ * ================================================
+ */
+final class ConfigSnapshot {
+    /**
+     * 创建快照时 {@link AutoSizeConfig} 的版本号, 也是 {@link me.jessyan.autosize.core.DensityCache} 中条目的版本号
+     */
+    final int version;
+    final int designWidthInDp;
+    final int designHeightInDp;
+    /**
+     * 全局的屏幕宽度
+     */
+    final int screenWidth;
+    /**
+     * 全局的屏幕高度, 已经按照 {@link #isUseDeviceSize} 减去了状态栏高度
+     */
+    final int screenHeight;
+    /**
+     * 使用者是否主动设置过屏幕尺寸
+     */
+    final boolean isCustomScreenSize;
+    final boolean isUseDeviceSize;
+    /**
+     * 使用者主动设置的状态栏高度, 没有设置时为 {@code 0}
+     */
+    final int customStatusBarHeight;
+    /**
+     * 适配时使用的字体缩放比例, 已经综合了私有的字体缩放比例和是否屏蔽系统字体大小
+     */
+    final float fontScale;
+    /**
+     * {@link AutoSizeConfig#getUnitsManager()} 的副本, 不会被修改
+     */
+    final UnitsManager unitsManager;
+    /**
+     * 复制 {@link #unitsManager} 时 {@link UnitsManager#getVersion()} 的值
+     */
+    final int unitsVersion;
+    /**
+     * 取消适配时使用的 {@link DisplayMetricsInfo}
+     */
+    final DisplayMetricsInfo initInfo;
+
+    ConfigSnapshot(int version, int designWidthInDp, int designHeightInDp, int screenWidth, int screenHeight, boolean isCustomScreenSize
+            , boolean isUseDeviceSize, int customStatusBarHeight, float fontScale, UnitsManager unitsManager, int unitsVersion
+            , DisplayMetricsInfo initInfo) {
+        this.version = version;
+        this.designWidthInDp = designWidthInDp;
+        this.designHeightInDp = designHeightInDp;
+        this.screenWidth = screenWidth;
+        this.screenHeight = screenHeight;
+        this.isCustomScreenSize = isCustomScreenSize;
+        this.isUseDeviceSize = isUseDeviceSize;
+        this.customStatusBarHeight = customStatusBarHeight;
+        this.fontScale = fontScale;
+        this.unitsManager = unitsManager;
+        this.unitsVersion = unitsVersion;
+        this.initInfo = initInfo;
+    }
+
+    /**
+     * 如果 {@code sizeInDp} 小于等于 0, 则使用在 AndroidManifest 上填写的设计图尺寸
+     *
+     * @param sizeInDp      设计图尺寸
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 最终用于适配的设计图尺寸
+     */
+    float resolveSizeInDp(float sizeInDp, boolean isBaseOnWidth) {
+        if (sizeInDp > 0) {
+            return sizeInDp;
+        }
+        if (isBaseOnWidth) {
+            Preconditions.checkArgument(designWidthInDp > 0, "you must set " + AutoSizeConfig.KEY_DESIGN_WIDTH_IN_DP + "  in your AndroidManifest file");
+            return designWidthInDp;
+        }
+        Preconditions.checkArgument(designHeightInDp > 0, "you must set " + AutoSizeConfig.KEY_DESIGN_HEIGHT_IN_DP + "  in your AndroidManifest file");
+        return designHeightInDp;
+    }
+
+    /**
+     * 返回副单位使用的设计图尺寸, 如果 {@link UnitsManager} 中没有设置, 则与 {@code sizeInDp} 相同
+     *
+     * @param sizeInDp      设计图尺寸
+     * @param isBaseOnWidth 是否按照宽度进行等比例适配
+     * @return 副单位使用的设计图尺寸
+     */
+    float getSubunitsDesignSize(float sizeInDp, boolean isBaseOnWidth) {
+        float subunitsDesignSize = isBaseOnWidth ? unitsManager.getDesignWidth() : unitsManager.getDesignHeight();
+        return subunitsDesignSize > 0 ? subunitsDesignSize : sizeInDp;
+    }
+
+    /**
+     * 复制 {@link UnitsManager}
+     *
+     * @param unitsManager {@link UnitsManager}
+     * @return 新的 {@link UnitsManager}
+     */
+    static UnitsManager copyOf(UnitsManager unitsManager) {
+        UnitsManager copy = new UnitsManager()
+                .setSupportDP(unitsManager.isSupportDP())
+                .setSupportSP(unitsManager.isSupportSP())
+                .setSupportScreenSizeDP(unitsManager.isSupportScreenSizeDP())
+                .setSupportSubunits(unitsManager.getSupportSubunits());
+        if (unitsManager.getDesignWidth() > 0) {
+            copy.setDesignWidth(unitsManager.getDesignWidth());
+        }
+        if (unitsManager.getDesignHeight() > 0) {
+            copy.setDesignHeight(unitsManager.getDesignHeight());
+        }
+        return copy;
+    }
+
+    /**
+     * 将最初的 xdpi 换算为以 {@code in} 为单位, 与 {@link DisplayMetricsInfo#getXdpi()} 保持一致
+     *
+     * @param initXdpi        最初的 {@link android.util.DisplayMetrics#xdpi}
+     * @param supportSubunits {@link Subunits}
+     * @return 以 {@code in} 为单位的 xdpi
+     */
+    static float toInitInfoXdpi(float initXdpi, Subunits supportSubunits) {
+        switch (supportSubunits) {
+            case PT:
+                return initXdpi / 72f;
+            case MM:
+                return initXdpi / 25.4f;
+            default:
+                return initXdpi;
+        }
+    }
+}
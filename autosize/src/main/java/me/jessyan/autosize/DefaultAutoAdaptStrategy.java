@@ -18,10 +18,8 @@ package me.jessyan.autosize;
 import android.app.Activity;
 import android.app.Application;
 
-import java.util.Locale;
-
+import me.jessyan.autosize.annotation.AutoSizeTarget;
 import me.jessyan.autosize.external.ExternalAdaptInfo;
-import me.jessyan.autosize.internal.CancelAdapt;
 import me.jessyan.autosize.internal.CustomAdapt;
 import me.jessyan.autosize.utils.AutoSizeLog;
 
@@ -37,40 +35,46 @@ import me.jessyan.autosize.utils.AutoSizeLog;
  * ================================================
  */
 public class DefaultAutoAdaptStrategy implements AutoAdaptStrategy {
+    /**
+     * 每个 target 的 {@link Class} 只会完整判断一次适配方式, 之后只需要查找一次缓存
+     */
+    private final AdaptDecisionResolver mDecisionResolver = new AdaptDecisionResolver();
+
     @Override
     public void applyAdapt(Object target, Activity activity) {
-
-        //检查是否开启了外部三方库的适配模式, 只要不主动调用 ExternalAdaptManager 的方法, 下面的代码就不会执行
-        if (AutoSizeConfig.getInstance().getExternalAdaptManager().isRun()) {
-            if (AutoSizeConfig.getInstance().getExternalAdaptManager().isCancelAdapt(target.getClass())) {
-                AutoSizeLog.w(String.format(Locale.ENGLISH, "%s canceled the adaptation!", target.getClass().getName()));
+        AutoSizeConfig config = AutoSizeConfig.getInstance();
+        AdaptDecisionResolver.Decision decision = mDecisionResolver.resolve(target.getClass()
+                , config.getExternalAdaptManager(), config.getAdaptRegistries());
+        switch (decision.type) {
+            case AdaptDecisionResolver.TYPE_CANCEL:
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.w("%s canceled the adaptation!", target.getClass().getName());
+                }
                 AutoSize.cancelAdapt(activity);
-                return;
-            } else {
-                ExternalAdaptInfo info = AutoSizeConfig.getInstance().getExternalAdaptManager()
-                        .getExternalAdaptInfoOfActivity(target.getClass());
-                if (info != null) {
-                    AutoSizeLog.d(String.format(Locale.ENGLISH, "%s used %s for adaptation!", target.getClass().getName(), ExternalAdaptInfo.class.getName()));
-                    AutoSize.autoConvertDensityOfExternalAdaptInfo(activity, info);
-                    return;
+                break;
+            case AdaptDecisionResolver.TYPE_EXTERNAL:
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("%s used %s for adaptation!", target.getClass().getName(), ExternalAdaptInfo.class.getName());
                 }
-            }
-        }
-
-        //如果 target 实现 CancelAdapt 接口表示放弃适配, 所有的适配效果都将失效
-        if (target instanceof CancelAdapt) {
-            AutoSizeLog.w(String.format(Locale.ENGLISH, "%s canceled the adaptation!", target.getClass().getName()));
-            AutoSize.cancelAdapt(activity);
-            return;
-        }
-
-        //如果 target 实现 CustomAdapt 接口表示该 target 想自定义一些用于适配的参数, 从而改变最终的适配效果
-        if (target instanceof CustomAdapt) {
-            AutoSizeLog.d(String.format(Locale.ENGLISH, "%s implemented by %s!", target.getClass().getName(), CustomAdapt.class.getName()));
-            AutoSize.autoConvertDensityOfCustomAdapt(activity, (CustomAdapt) target);
-        } else {
-            AutoSizeLog.d(String.format(Locale.ENGLISH, "%s used the global configuration.", target.getClass().getName()));
-            AutoSize.autoConvertDensityOfGlobal(activity);
+                AutoSize.autoConvertDensityOfExternalAdaptInfo(activity, decision.externalAdaptInfo);
+                break;
+            case AdaptDecisionResolver.TYPE_ANNOTATION:
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("%s used @%s for adaptation!", target.getClass().getName(), AutoSizeTarget.class.getSimpleName());
+                }
+                AutoSize.autoConvertDensityOfExternalAdaptInfo(activity, decision.externalAdaptInfo);
+                break;
+            case AdaptDecisionResolver.TYPE_CUSTOM:
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("%s implemented by %s!", target.getClass().getName(), CustomAdapt.class.getName());
+                }
+                AutoSize.autoConvertDensityOfCustomAdapt(activity, (CustomAdapt) target);
+                break;
+            default:
+                if (AutoSizeLog.isDebug()) {
+                    AutoSizeLog.d("%s used the global configuration.", target.getClass().getName());
+                }
+                AutoSize.autoConvertDensityOfGlobal(activity);
         }
     }
 }
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+/**
+ * ================================================
+ * 适配结果缓存的统计数据快照, 通过 {@link AutoSize#getCacheStats()} 获取
+ * 可以根据线上的命中率和淘汰次数, 通过 {@link AutoSizeConfig#setCacheCapacity(int)} 调整缓存的容量上限
+ * ================================================
+ */
+public final class DensityCacheStats {
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final int size;
+    private final int capacity;
+
+    DensityCacheStats(long hitCount, long missCount, long evictionCount, int size, int capacity) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 命中缓存的次数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 未命中缓存 (需要重新计算) 的次数
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 因为超出容量上限而被淘汰的条目数量
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 当前缓存的条目数量
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * 缓存的容量上限
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 命中率, 还没有任何请求时返回 {@code 1}
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "DensityCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                ", capacity=" + capacity +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.util.DisplayMetrics;
+
+import me.jessyan.autosize.unit.Subunits;
+import me.jessyan.autosize.unit.UnitsManager;
+
+/**
+ * ================================================
+ * 将 {@link DisplayMetricsInfo} 赋值给 {@link DisplayMetrics}, 只依赖传入的参数, 不依赖 {@link AutoSizeConfig}
+ * 所以也可以脱离设备在 JVM 上进行基准测试
+ * ================================================
+ */
+final class DensityWriter {
+
+    private DensityWriter() {
+        throw new IllegalStateException("you can't instantiate me!");
+    }
+
+    /**
+     * 赋值
+     *
+     * @param displayMetrics {@link DisplayMetrics}
+     * @param info           {@link DisplayMetricsInfo}
+     * @param unitsManager   {@link UnitsManager}, 决定哪些字段需要赋值
+     */
+    static void setDensity(DisplayMetrics displayMetrics, DisplayMetricsInfo info, UnitsManager unitsManager) {
+        if (unitsManager.isSupportDP()) {
+            displayMetrics.density = info.getDensity();
+            displayMetrics.densityDpi = info.getDensityDpi();
+        }
+        if (unitsManager.isSupportSP()) {
+            displayMetrics.scaledDensity = info.getScaledDensity();
+        }
+        if (unitsManager.getSupportSubunits() != Subunits.NONE) {
+            displayMetrics.xdpi = toSubunitsXdpi(info.getXdpi(), unitsManager.getSupportSubunits());
+        }
+    }
+
+    /**
+     * 将以 {@code in} 为单位的 xdpi 换算为副单位对应的 {@link DisplayMetrics#xdpi}
+     *
+     * @param xdpi            以 {@code in} 为单位的 xdpi
+     * @param supportSubunits {@link Subunits}
+     * @return {@link DisplayMetrics#xdpi}
+     */
+    static float toSubunitsXdpi(float xdpi, Subunits supportSubunits) {
+        switch (supportSubunits) {
+            case PT:
+                return xdpi * 72f;
+            case MM:
+                return xdpi * 25.4f;
+            default:
+                return xdpi;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import me.jessyan.autosize.core.DensityCache;
+import me.jessyan.autosize.core.DensityCalculator;
+import me.jessyan.autosize.core.DensityInfo;
+import me.jessyan.autosize.utils.AutoSizeTrace;
+
+/**
+ * ================================================
+ * {@link AutoSizeEngine} 使用的适配结果缓存, 负责查找、未命中时计算并存入 {@link DensityCache}
+ * 所有参数都由 {@link AutoSizeEngine} 从 {@link ConfigSnapshot} 中取出后传入, 不依赖 {@link AutoSizeConfig}
+ * 所以 autosize-benchmark 可以直接对这条真实的查找路径进行基准测试
+ * <p>
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class DisplayMetricsInfoCache {
+    private final DensityCache<DisplayMetricsInfo> mCache;
+    private final AdaptMetricsRecorder mMetrics;
+
+    DisplayMetricsInfoCache(int maxSize, AdaptMetricsRecorder metrics) {
+        mCache = new DensityCache<>(maxSize);
+        mMetrics = metrics;
+    }
+
+    /**
+     * 根据设计图尺寸和指定的屏幕 (窗口) 尺寸计算出适配后的 {@link DisplayMetricsInfo}, 计算结果会被缓存, 相同的参数只会计算一次
+     * 屏幕尺寸也是缓存的 key 之一, 所以不同尺寸的窗口会分别缓存各自的结果, 互不影响
+     * 缓存命中时不会产生任何对象, 返回的 {@link DisplayMetricsInfo} 是不可变的共享实例
+     *
+     * @param version            配置的版本号, 见 {@link ConfigSnapshot#version}
+     * @param sizeInDp           设计图上的设计尺寸, 单位 dp
+     * @param subunitsDesignSize 副单位使用的设计图尺寸
+     * @param isBaseOnWidth      是否按照宽度进行等比例适配
+     * @param isUseDeviceSize    屏幕高度是否包含状态栏, 见 {@link ConfigSnapshot#isUseDeviceSize}
+     * @param screenWidth        屏幕 (窗口) 宽度
+     * @param screenHeight       屏幕 (窗口) 高度
+     * @param fontScale          字体缩放比例
+     * @return {@link DisplayMetricsInfo}
+     */
+    DisplayMetricsInfo obtain(int version, float sizeInDp, float subunitsDesignSize, boolean isBaseOnWidth, boolean isUseDeviceSize
+            , int screenWidth, int screenHeight, float fontScale) {
+        int flags = 0;
+        if (isBaseOnWidth) {
+            flags |= DensityCache.FLAG_BASE_ON_WIDTH;
+        }
+        if (isUseDeviceSize) {
+            flags |= DensityCache.FLAG_USE_DEVICE_SIZE;
+        }
+
+        //配置改变后版本号会递增, 之前缓存的结果在查找时会被视为未命中
+        mCache.setVersion(version);
+        DisplayMetricsInfo displayMetricsInfo = mCache.get(sizeInDp, subunitsDesignSize, screenWidth, screenHeight, flags, fontScale);
+        if (displayMetricsInfo == null) {
+            mMetrics.onCacheMiss();
+            boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_COMPUTE);
+            try {
+                displayMetricsInfo = calculate(sizeInDp, subunitsDesignSize, isBaseOnWidth, screenWidth, screenHeight, fontScale);
+                mCache.put(sizeInDp, subunitsDesignSize, screenWidth, screenHeight, flags, fontScale, displayMetricsInfo);
+            } finally {
+                if (traced) {
+                    AutoSizeTrace.endSection();
+                }
+            }
+        } else {
+            mMetrics.onCacheHit();
+            //命中缓存时几乎没有耗时, 只输出一个空的片段作为标记, 方便在 Trace 中区分两种情况
+            if (AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_CACHE_HIT)) {
+                AutoSizeTrace.endSection();
+            }
+        }
+        return displayMetricsInfo;
+    }
+
+    /**
+     * 这里是今日头条适配方案的核心代码, 核心在于根据当前设备的实际情况做自动计算并转换 {@link android.util.DisplayMetrics#density}、
+     * {@link android.util.DisplayMetrics#scaledDensity}、{@link android.util.DisplayMetrics#densityDpi} 这三个值, 额外增加
+     * {@link android.util.DisplayMetrics#xdpi} 以支持单位 {@code pt}、{@code in}、{@code mm}
+     * 计算本身由不依赖 Android 的 {@link DensityCalculator} 完成, 这里只负责把结果转换为不可变的 {@link DisplayMetricsInfo}
+     *
+     * @param sizeInDp           设计图上的设计尺寸, 单位 dp
+     * @param subunitsDesignSize 副单位使用的设计图尺寸
+     * @param isBaseOnWidth      是否按照宽度进行等比例适配
+     * @param screenWidth        屏幕宽度
+     * @param screenHeight       屏幕高度
+     * @param fontScale          字体缩放比例
+     * @return {@link DisplayMetricsInfo}
+     */
+    private static DisplayMetricsInfo calculate(float sizeInDp, float subunitsDesignSize, boolean isBaseOnWidth
+            , int screenWidth, int screenHeight, float fontScale) {
+        DensityInfo info = DensityCalculator.calculate(sizeInDp, subunitsDesignSize, isBaseOnWidth, screenWidth, screenHeight, fontScale);
+        return new ImmutableDisplayMetricsInfo(info.getDensity(), info.getDensityDpi(), info.getScaledDensity(), info.getXdpi()
+                , info.getScreenWidthDp(), info.getScreenHeightDp());
+    }
+
+    /**
+     * 修改缓存的容量上限
+     *
+     * @param maxSize 最多缓存的 {@link DisplayMetricsInfo} 数量
+     */
+    void resize(int maxSize) {
+        mCache.resize(maxSize);
+    }
+
+    int maxSize() {
+        return mCache.maxSize();
+    }
+
+    /**
+     * 返回缓存的统计数据快照
+     *
+     * @return {@link DensityCacheStats}
+     */
+    DensityCacheStats getStats() {
+        return new DensityCacheStats(mCache.hitCount(), mCache.missCount(), mCache.evictionCount()
+                , mCache.size(), mCache.maxSize());
+    }
+}
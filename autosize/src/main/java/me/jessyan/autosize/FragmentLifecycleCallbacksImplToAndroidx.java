@@ -17,6 +17,7 @@ package me.jessyan.autosize;
 
 import android.os.Bundle;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentActivity;
 import androidx.fragment.app.FragmentManager;
 
 /**
@@ -46,6 +47,38 @@ public class FragmentLifecycleCallbacksImplToAndroidx extends FragmentManager.Fr
         }
     }
 
+    /**
+     * 注册到 {@code activity} 的 {@link FragmentManager} 中, 包括所有子 {@link Fragment}
+     *
+     * @param activity {@link FragmentActivity}
+     */
+    void register(FragmentActivity activity) {
+        activity.getSupportFragmentManager().registerFragmentLifecycleCallbacks(this, true);
+    }
+
+    /**
+     * 使用当前的配置重新适配 {@code activity} 中所有已经添加的 {@link Fragment}, 包括子 {@link Fragment}
+     * 父 {@link Fragment} 先于子 {@link Fragment} 适配, 与创建时的顺序相同, 所以最终生效的是最内层 {@link Fragment} 的适配参数
+     * 只能在主线程中调用
+     *
+     * @param activity {@link FragmentActivity}
+     */
+    void readaptFragments(FragmentActivity activity) {
+        if (mAutoAdaptStrategy != null) {
+            readaptFragments(activity.getSupportFragmentManager(), activity);
+        }
+    }
+
+    private void readaptFragments(FragmentManager fm, FragmentActivity activity) {
+        for (Fragment fragment : fm.getFragments()) {
+            if (fragment == null || !fragment.isAdded()) {
+                continue;
+            }
+            mAutoAdaptStrategy.applyAdapt(fragment, activity);
+            readaptFragments(fragment.getChildFragmentManager(), activity);
+        }
+    }
+
     /**
      * 设置屏幕适配逻辑策略类
      *
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+/**
+ * ================================================
+ * 不可变的 {@link DisplayMetricsInfo}, 存放在 {@link me.jessyan.autosize.core.DensityCache} 中被所有适配共享, 所以不允许被修改
+ * ================================================
+ */
+final class ImmutableDisplayMetricsInfo extends DisplayMetricsInfo {
+
+    ImmutableDisplayMetricsInfo(float density, int densityDpi, float scaledDensity, float xdpi, int screenWidthDp, int screenHeightDp) {
+        super(density, densityDpi, scaledDensity, xdpi, screenWidthDp, screenHeightDp);
+    }
+
+    @Override
+    public void setDensity(float density) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+
+    @Override
+    public void setDensityDpi(int densityDpi) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+
+    @Override
+    public void setScaledDensity(float scaledDensity) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+
+    @Override
+    public void setXdpi(float xdpi) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+
+    @Override
+    public void setScreenWidthDp(int screenWidthDp) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+
+    @Override
+    public void setScreenHeightDp(int screenHeightDp) {
+        throw new UnsupportedOperationException("ImmutableDisplayMetricsInfo can't be modified");
+    }
+}
@@ -39,8 +39,9 @@ public class InitProvider extends ContentProvider {
         if (application == null) {
             application = AutoSizeUtils.getApplicationByReflect();
         }
+        //只在 debuggable 的包中默认开启日志, release 包中适配时不会产生任何日志相关的开销
         AutoSizeConfig.getInstance()
-                .setLog(true)
+                .setLog(AutoSizeUtils.isDebuggable(application))
                 .init((Application) application)
                 .setUseDeviceSize(false);
         return true;
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Application;
+
+/**
+ * ================================================
+ * AndroidAutoSize 初始化时各个阶段耗时的快照, 通过 {@link AutoSizeConfig#getInitTimings()} 获取
+ * 使用 {@link AutoSize#initDeferred(Application)} 延迟初始化时, 除了 {@link #PHASE_REGISTER} 以外的阶段
+ * 都会推迟到第一次适配 (第一次用到这些值) 时才执行, 还没有执行的阶段耗时为 {@code -1}
+ * ================================================
+ */
+public final class InitTimings {
+    /**
+     * 读取 {@link Application} 和系统的初始 DisplayMetrics, 并注册 ActivityLifecycleCallbacks 和 ComponentCallbacks
+     */
+    public static final int PHASE_REGISTER = 0;
+    /**
+     * 读取设计图尺寸, 优先读取编译期生成的资源, 否则读取 AndroidManifest 中的 Meta 信息 (非延迟模式下只统计启动读取线程的耗时)
+     */
+    public static final int PHASE_META_DATA = 1;
+    /**
+     * 通过 WindowManager 获取屏幕尺寸
+     */
+    public static final int PHASE_SCREEN_SIZE = 2;
+    /**
+     * 获取状态栏高度
+     */
+    public static final int PHASE_STATUS_BAR_HEIGHT = 3;
+    /**
+     * 检测所有 {@link ResourcesPatcher} 是否需要兼容当前的 ROM (如 Miui 系统的 mTmpMetrics 字段)
+     */
+    public static final int PHASE_MIUI = 4;
+    static final int PHASE_COUNT = 5;
+
+    private final boolean isDeferred;
+    private final long[] phaseNanos;
+
+    InitTimings(boolean isDeferred, long[] phaseNanos) {
+        this.isDeferred = isDeferred;
+        this.phaseNanos = phaseNanos.clone();
+    }
+
+    /**
+     * 是否使用了延迟初始化
+     */
+    public boolean isDeferred() {
+        return isDeferred;
+    }
+
+    /**
+     * 某个阶段的耗时
+     *
+     * @param phase {@link #PHASE_REGISTER}、{@link #PHASE_META_DATA}、{@link #PHASE_SCREEN_SIZE}、
+     *              {@link #PHASE_STATUS_BAR_HEIGHT}、{@link #PHASE_MIUI}
+     * @return 耗时, 单位 ns, 还没有执行时返回 {@code -1}
+     */
+    public long getPhaseNanos(int phase) {
+        return phaseNanos[phase];
+    }
+
+    /**
+     * 所有已经执行的阶段的总耗时
+     *
+     * @return 耗时, 单位 ns
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (long nanos : phaseNanos) {
+            if (nanos > 0) {
+                total += nanos;
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "InitTimings{" +
+                "isDeferred=" + isDeferred +
+                ", register=" + phaseNanos[PHASE_REGISTER] +
+                ", metaData=" + phaseNanos[PHASE_META_DATA] +
+                ", screenSize=" + phaseNanos[PHASE_SCREEN_SIZE] +
+                ", statusBarHeight=" + phaseNanos[PHASE_STATUS_BAR_HEIGHT] +
+                ", miui=" + phaseNanos[PHASE_MIUI] +
+                ", total=" + getTotalNanos() +
+                '}';
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import java.lang.reflect.Field;
+
+/**
+ * ================================================
+ * 解决 MIUI 更改框架导致的 MIUI7 + Android5.1.1 上出现的失效问题 (以及极少数基于这部分 MIUI 去掉 ART 然后置入 XPosed 的手机)
+ * 来源于: https://github.com/Firedamp/Rudeness/blob/master/rudeness-sdk/src/main/java/com/bulong/rudeness/RudenessScreenHelper.java#L61:5
+ * <p>
+ * 通过 {@link Resources} 的类名检测 MiuiResources 和 XResources, 检测到之后反射 mTmpMetrics 字段, 检测和反射都只会进行一次
+ *
+ * @see ResourcesPatcher
+ * ================================================
+ */
+public class MiuiResourcesPatcher implements ResourcesPatcher {
+    private boolean isMiui;
+    private Field mTmpMetricsField;
+
+    @Override
+    public boolean isApplicable(Resources resources) {
+        String resourcesName = resources.getClass().getSimpleName();
+        if ("MiuiResources".equals(resourcesName) || "XResources".equals(resourcesName)) {
+            isMiui = true;
+            try {
+                mTmpMetricsField = Resources.class.getDeclaredField("mTmpMetrics");
+                mTmpMetricsField.setAccessible(true);
+            } catch (Exception e) {
+                mTmpMetricsField = null;
+            }
+        }
+        return mTmpMetricsField != null;
+    }
+
+    @Override
+    public DisplayMetrics getExtraDisplayMetrics(Resources resources) {
+        try {
+            return (DisplayMetrics) mTmpMetricsField.get(resources);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 是否是 Miui 系统, 在 {@link #isApplicable(Resources)} 被调用之前永远返回 {@code false}
+     *
+     * @return {@code true} 为 Miui 系统
+     */
+    public boolean isMiui() {
+        return isMiui;
+    }
+
+    /**
+     * Miui 系统中的 mTmpMetrics 字段
+     *
+     * @return {@link Field}, 不是 Miui 系统或反射失败时返回 {@code null}
+     */
+    public Field getTmpMetricsField() {
+        return mTmpMetricsField;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+/**
+ * ================================================
+ * 兼容修改了 {@link Resources} 的 ROM, 有些 ROM (如 Miui) 的 {@link Resources} 中除了 {@link Resources#getDisplayMetrics()}
+ * 之外还有其他的 {@link DisplayMetrics} 参与计算, 只修改 {@link Resources#getDisplayMetrics()} 会导致适配失效
+ * 所以适配时需要把同样的值也赋值给这些 {@link DisplayMetrics}
+ * <p>
+ * 可通过 {@link AutoSizeConfig#addResourcesPatcher(ResourcesPatcher)} 添加自己的实现, 框架默认已经添加了 {@link MiuiResourcesPatcher}
+ * {@link #isApplicable(Resources)} 只会在初始化时调用一次, {@link #getExtraDisplayMetrics(Resources)} 对每个 {@link Resources}
+ * 只会调用一次 (除非它的 ResourcesImpl 被系统替换), 结果会被缓存, 所以实现类可以在这两个方法中使用反射, 之后的适配中不会再有任何反射调用
+ *
+ * @see MiuiResourcesPatcher
+ * ================================================
+ */
+public interface ResourcesPatcher {
+
+    /**
+     * 是否需要兼容当前的 ROM, 只会调用一次, 返回 {@code false} 后 {@link #getExtraDisplayMetrics(Resources)} 不会再被调用
+     * 可以在这里完成反射的查找工作
+     *
+     * @param resources Application 的 {@link Resources}
+     * @return {@code true} 表示需要兼容
+     */
+    boolean isApplicable(Resources resources);
+
+    /**
+     * 返回 {@code resources} 中除了 {@link Resources#getDisplayMetrics()} 之外还需要被赋值的 {@link DisplayMetrics}
+     * 每个 {@link Resources} 实例只会调用一次, 所以返回的 {@link DisplayMetrics} 必须在 {@code resources} 的生命周期内保持不变
+     *
+     * @param resources {@link Resources}
+     * @return {@link DisplayMetrics}, 没有则返回 {@code null}
+     */
+    DisplayMetrics getExtraDisplayMetrics(Resources resources);
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import me.jessyan.autosize.utils.Preconditions;
+
+/**
+ * ================================================
+ * 管理所有的 {@link ResourcesPatcher}, 每个 {@link ResourcesPatcher} 只会检测一次是否需要兼容当前的 ROM
+ * 每个 {@link Resources} 需要额外赋值的 {@link DisplayMetrics} 由 {@link WriteTargetCache} 获取一次后缓存
+ * 所以稳定状态下的适配没有任何反射调用, 需要兼容的 {@link ResourcesPatcher} 发生变化时 {@link #getVersion()} 会递增
+ * <p>
+ * 可以在任意线程中使用
+ * ================================================
+ */
+final class ResourcesPatcherRegistry {
+    /**
+     * 所有已注册的 {@link ResourcesPatcher}, 修改时整体替换
+     */
+    private ResourcesPatcher[] mPatchers = new ResourcesPatcher[0];
+    /**
+     * 检测后确认需要兼容当前 ROM 的 {@link ResourcesPatcher}, 还没有检测时为 {@code null}
+     */
+    private volatile ResourcesPatcher[] mActivePatchers;
+    /**
+     * 用于检测新注册的 {@link ResourcesPatcher}
+     */
+    private Resources mResources;
+    private volatile int mVersion;
+
+    /**
+     * 注册 {@link ResourcesPatcher}, 如果已经检测过, 会立即检测新注册的 {@link ResourcesPatcher}
+     *
+     * @param patcher {@link ResourcesPatcher}
+     */
+    synchronized void add(ResourcesPatcher patcher) {
+        Preconditions.checkNotNull(patcher, "patcher == null");
+        ResourcesPatcher[] patchers = Arrays.copyOf(mPatchers, mPatchers.length + 1);
+        patchers[patchers.length - 1] = patcher;
+        mPatchers = patchers;
+        ResourcesPatcher[] activePatchers = mActivePatchers;
+        if (activePatchers != null && patcher.isApplicable(mResources)) {
+            activePatchers = Arrays.copyOf(activePatchers, activePatchers.length + 1);
+            activePatchers[activePatchers.length - 1] = patcher;
+            mActivePatchers = activePatchers;
+            mVersion++;
+        }
+    }
+
+    /**
+     * 检测所有已注册的 {@link ResourcesPatcher}, 只有第一次调用有效
+     *
+     * @param resources Application 的 {@link Resources}
+     */
+    synchronized void detect(Resources resources) {
+        if (mActivePatchers != null) {
+            return;
+        }
+        List<ResourcesPatcher> activePatchers = new ArrayList<>();
+        for (ResourcesPatcher patcher : mPatchers) {
+            if (patcher.isApplicable(resources)) {
+                activePatchers.add(patcher);
+            }
+        }
+        mResources = resources;
+        mActivePatchers = activePatchers.toArray(new ResourcesPatcher[activePatchers.size()]);
+        mVersion++;
+    }
+
+    boolean isDetected() {
+        return mActivePatchers != null;
+    }
+
+    /**
+     * 返回版本号, 每次需要兼容的 {@link ResourcesPatcher} 发生变化都会递增, 用于判断缓存的 {@link DisplayMetrics} 是否需要重新获取
+     *
+     * @return 版本号
+     */
+    int getVersion() {
+        return mVersion;
+    }
+
+    /**
+     * 返回 {@code resources} 中除了 {@link Resources#getDisplayMetrics()} 之外还需要被赋值的 {@link DisplayMetrics}
+     * 每次调用都会询问所有需要兼容的 {@link ResourcesPatcher}, 所以调用者需要自行缓存结果
+     *
+     * @param resources {@link Resources}
+     * @param outMetrics 用于接收结果的 {@link List}
+     */
+    void getExtraDisplayMetrics(Resources resources, List<DisplayMetrics> outMetrics) {
+        ResourcesPatcher[] activePatchers = mActivePatchers;
+        if (activePatchers == null) {
+            return;
+        }
+        for (ResourcesPatcher patcher : activePatchers) {
+            DisplayMetrics displayMetrics = patcher.getExtraDisplayMetrics(resources);
+            if (displayMetrics != null) {
+                outMetrics.add(displayMetrics);
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Display;
+import android.view.WindowManager;
+
+import me.jessyan.autosize.utils.ScreenUtils;
+
+/**
+ * ================================================
+ * 跟踪默认屏幕的尺寸, 代替在每次 {@link Configuration} 改变时都调用 {@link me.jessyan.autosize.utils.ScreenUtils#getScreenSize(Context)}
+ * <p>
+ * 语言、夜间模式等改变也会触发 onConfigurationChanged, 但屏幕尺寸并没有变化, 所以这里只在 {@link DisplayManager.DisplayListener}
+ * 通知默认屏幕发生变化 (Android 4.2 及以上), 或屏幕方向改变时才重新读取屏幕尺寸
+ * 读取时复用同一个数组, 结果直接写入基本类型的字段, 使用 {@link me.jessyan.autosize.utils.DefaultScreenMetricsProvider} 时不会产生任何对象
+ * 只有像素尺寸或屏幕的旋转方向真的发生变化时才会通知 {@link OnScreenSizeChangedListener}
+ * 旋转方向在这里随屏幕的变化读取一次, 获取旋转方向在一些系统版本上是一次 IPC 调用, 不能在每次适配时都调用
+ * <p>
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class ScreenSizeTracker {
+    private final Context mContext;
+    private final OnScreenSizeChangedListener mListener;
+    private final int[] mSize = new int[2];
+    /**
+     * 默认屏幕, {@link #start()} 时获取一次, 之后读取旋转方向时复用
+     */
+    private Display mDisplay;
+    private int mWidth;
+    private int mHeight;
+    private int mRotation;
+    private int mOrientation = Configuration.ORIENTATION_UNDEFINED;
+    private boolean isStarted;
+
+    ScreenSizeTracker(Context context, OnScreenSizeChangedListener listener) {
+        mContext = context;
+        mListener = listener;
+    }
+
+    /**
+     * 第一次读取屏幕尺寸, 并开始监听屏幕的变化, 重复调用不会有任何效果
+     */
+    void start() {
+        if (isStarted) {
+            return;
+        }
+        isStarted = true;
+        mOrientation = mContext.getResources().getConfiguration().orientation;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            mDisplay = ((DisplayManager) mContext.getSystemService(Context.DISPLAY_SERVICE)).getDisplay(Display.DEFAULT_DISPLAY);
+            registerDisplayListener();
+        } else {
+            mDisplay = getDefaultDisplayBeforeJellyBeanMR1();
+        }
+        //第一次读取只是初始化, 不需要通知
+        readSize();
+    }
+
+    @SuppressWarnings("deprecation")
+    private Display getDefaultDisplayBeforeJellyBeanMR1() {
+        return ((WindowManager) mContext.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void registerDisplayListener() {
+        final int displayId = mDisplay.getDisplayId();
+        DisplayManager displayManager = (DisplayManager) mContext.getSystemService(Context.DISPLAY_SERVICE);
+        displayManager.registerDisplayListener(new DisplayManager.DisplayListener() {
+            @Override
+            public void onDisplayAdded(int id) {
+
+            }
+
+            @Override
+            public void onDisplayRemoved(int id) {
+
+            }
+
+            @Override
+            public void onDisplayChanged(int id) {
+                if (id == displayId) {
+                    refresh();
+                }
+            }
+        }, new Handler(Looper.getMainLooper()));
+    }
+
+    /**
+     * 在 Application 的 {@link Configuration} 改变时调用, 只有屏幕方向改变时才会重新读取屏幕尺寸
+     *
+     * @param newConfig 新的 {@link Configuration}
+     */
+    void onConfigurationChanged(Configuration newConfig) {
+        if (!isStarted || newConfig.orientation == mOrientation) {
+            return;
+        }
+        mOrientation = newConfig.orientation;
+        refresh();
+    }
+
+    /**
+     * 重新读取屏幕尺寸和旋转方向, 发生变化时通知 {@link OnScreenSizeChangedListener}
+     */
+    void refresh() {
+        if (!isStarted) {
+            return;
+        }
+        int oldWidth = mWidth;
+        int oldHeight = mHeight;
+        int oldRotation = mRotation;
+        readSize();
+        if (mWidth != oldWidth || mHeight != oldHeight) {
+            mListener.onScreenSizeChanged(mWidth, mHeight);
+        } else if (mRotation != oldRotation) {
+            mListener.onScreenRotationChanged(mRotation);
+        }
+    }
+
+    private void readSize() {
+        ScreenUtils.getScreenSize(mContext, mSize);
+        mWidth = mSize[0];
+        mHeight = mSize[1];
+        mRotation = mDisplay.getRotation();
+    }
+
+    int getWidth() {
+        return mWidth;
+    }
+
+    int getHeight() {
+        return mHeight;
+    }
+
+    interface OnScreenSizeChangedListener {
+        /**
+         * 默认屏幕的像素尺寸发生了变化
+         *
+         * @param width  新的屏幕宽度
+         * @param height 新的屏幕高度
+         */
+        void onScreenSizeChanged(int width, int height);
+
+        /**
+         * 默认屏幕的像素尺寸没有变化, 只有旋转方向发生了变化, 例如横屏时在 90 度和 270 度之间翻转
+         * 这种情况下不会触发 onConfigurationChanged, 但刘海所在的位置改变了
+         *
+         * @param rotation 新的旋转方向
+         */
+        void onScreenRotationChanged(int rotation);
+    }
+}
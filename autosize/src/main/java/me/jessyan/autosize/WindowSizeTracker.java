@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.os.Build;
+import android.view.View;
+import android.view.Window;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import me.jessyan.autosize.utils.ScreenUtils;
+
+/**
+ * ================================================
+ * 记录每个 {@link Activity} 所在窗口的尺寸以及顶部状态栏的高度, 在分屏、自由窗口、折叠屏以及副屏上, 每个 {@link Activity} 都使用自己窗口的尺寸进行适配
+ * <p>
+ * {@link ActivityLifecycleCallbacksImpl} 在 onActivityCreated 和 onActivityStarted 中都会进行适配, 但窗口尺寸很少变化
+ * 所以只有第一次适配, 或者 {@link Activity} 的 {@link Configuration} 中与窗口尺寸相关的字段发生变化时才会重新获取
+ * 横屏时在 90 度和 270 度之间翻转不会改变 {@link Configuration}, 但刘海所在的位置不同, 这种情况由 {@link ScreenSizeTracker} 监听并调用 {@link #invalidate()}
+ * 这里不在每次适配时获取屏幕的旋转方向, 因为它在一些系统版本上是一次 IPC 调用
+ * 自由窗口拖动边框、分屏拖动分隔条时只有 {@link Configuration#screenWidthDp} 和 {@link Configuration#screenHeightDp} 会改变
+ * 但开启 {@link me.jessyan.autosize.unit.UnitsManager#setSupportScreenSizeDP(boolean)} 后它们会在适配时被修改
+ * 所以这两个字段与系统给出的值或者最后一次适配写入的值之一相同, 就认为窗口尺寸没有变化, 详情请查看 {@link #onScreenSizeDpWritten(Resources, int, int)}
+ * {@link Activity#isInMultiWindowMode()} 在 Android 7.x 上同样是一次 IPC 调用, 所以只在获取窗口尺寸时记录, 不在每次适配时比较
+ * 进入或退出分屏时窗口尺寸会改变, {@link Configuration} 中的字段也会随之改变, 重新获取窗口尺寸时会一并更新
+ * <p>
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class WindowSizeTracker {
+    /**
+     * {@link Activity} 没有重写 equals 和 hashCode, 所以这里以实例为 key, 并且不会阻止 {@link Activity} 被回收
+     */
+    private final Map<Activity, WindowSize> mWindowSizes = new WeakHashMap<>();
+    /**
+     * 以 {@link Activity} 的 {@link Resources} 为 key, 让 {@link AutoSizeCompat} 传入的 {@link Resources} 也能找到所属窗口的尺寸
+     * {@link WindowSize} 只弱引用 {@link Activity}, 所以同样不会阻止 {@link Activity} 被回收
+     */
+    private final Map<Resources, WindowSize> mWindowSizesByResources = new WeakHashMap<>();
+
+    /**
+     * 返回 {@code activity} 所在窗口的尺寸, 窗口尺寸没有变化时不会重新获取
+     *
+     * @param activity {@link Activity}
+     * @return {@link WindowSize}, 在下一次调用此方法之前有效
+     */
+    WindowSize obtain(Activity activity) {
+        return obtain(activity, activity.getResources());
+    }
+
+    /**
+     * 返回 {@code resources} 所属 {@link Activity} 所在窗口的尺寸, 只能找到之前通过 {@link #obtain(Activity)} 获取过窗口尺寸的 {@link Activity}
+     * 不会调用 {@link Activity#getResources()}, 所以在 {@link Activity} 重写的 getResources() 中调用也不会造成递归
+     *
+     * @param resources {@link Resources}
+     * @return {@link WindowSize}, 在下一次调用此方法之前有效, 没有找到所属的 {@link Activity} 时返回 {@code null}
+     */
+    WindowSize obtain(Resources resources) {
+        WindowSize windowSize = mWindowSizesByResources.get(resources);
+        if (windowSize == null) {
+            return null;
+        }
+        Activity activity = windowSize.mActivity.get();
+        return activity == null ? null : obtain(activity, resources);
+    }
+
+    private WindowSize obtain(Activity activity, Resources resources) {
+        Configuration configuration = resources.getConfiguration();
+        WindowSize windowSize = mWindowSizes.get(activity);
+        if (windowSize == null) {
+            windowSize = new WindowSize(activity);
+            mWindowSizes.put(activity, windowSize);
+        } else if (windowSize.isValid && windowSize.matches(activity, configuration)) {
+            return windowSize;
+        }
+        windowSize.update(activity, configuration);
+        mWindowSizesByResources.put(resources, windowSize);
+        return windowSize;
+    }
+
+    /**
+     * 适配时修改了 {@code resources} 的 {@link Configuration#screenWidthDp} 和 {@link Configuration#screenHeightDp} 后调用
+     * 记录下写入的值, 之后遇到这两个值时不会误认为窗口尺寸发生了变化
+     *
+     * @param resources      被修改的 {@link Resources}
+     * @param screenWidthDp  写入的 {@link Configuration#screenWidthDp}
+     * @param screenHeightDp 写入的 {@link Configuration#screenHeightDp}
+     */
+    void onScreenSizeDpWritten(Resources resources, int screenWidthDp, int screenHeightDp) {
+        WindowSize windowSize = mWindowSizesByResources.get(resources);
+        if (windowSize != null) {
+            windowSize.writtenScreenWidthDp = screenWidthDp;
+            windowSize.writtenScreenHeightDp = screenHeightDp;
+        }
+    }
+
+    /**
+     * 让所有记录失效, 下次适配时会重新获取窗口尺寸, 一般在 Application 的 {@link Configuration} 或屏幕的旋转方向改变时调用
+     */
+    void invalidate() {
+        for (WindowSize windowSize : mWindowSizes.values()) {
+            windowSize.isValid = false;
+        }
+    }
+
+    static final class WindowSize {
+        private final WeakReference<Activity> mActivity;
+        private final int[] mSize = new int[2];
+        private boolean isValid;
+        private int orientation;
+        private int screenLayout;
+        private int smallestScreenWidthDp;
+        private int screenWidthDp;
+        private int screenHeightDp;
+        private int writtenScreenWidthDp = -1;
+        private int writtenScreenHeightDp = -1;
+        private int densityDpi;
+        private boolean isInMultiWindowMode;
+        private int statusBarHeight;
+        /**
+         * Android 11 以下窗口 attach 之前无法获取 WindowInsets, 获取到的只是状态栏的默认高度, 窗口 attach 之后需要重新获取一次
+         */
+        private boolean isStatusBarHeightResolved;
+
+        WindowSize(Activity activity) {
+            mActivity = new WeakReference<>(activity);
+        }
+
+        int getWidth() {
+            return mSize[0];
+        }
+
+        int getHeight() {
+            return mSize[1];
+        }
+
+        /**
+         * 窗口顶部被状态栏 (以及刘海) 占用的高度, 与窗口尺寸一起缓存, 屏幕的旋转方向改变后会重新获取
+         */
+        int getStatusBarHeight() {
+            return statusBarHeight;
+        }
+
+        private boolean matches(Activity activity, Configuration configuration) {
+            return orientation == configuration.orientation
+                    && screenLayout == configuration.screenLayout
+                    && smallestScreenWidthDp == configuration.smallestScreenWidthDp
+                    && matchesScreenSizeDp(configuration)
+                    && densityDpi == getDensityDpi(configuration)
+                    && matchesMultiWindowMode(activity)
+                    && (isStatusBarHeightResolved || !isWindowAttached(activity));
+        }
+
+        /**
+         * 与获取窗口尺寸时系统给出的值, 或者最后一次适配写入的值相同都视为没有变化
+         */
+        private boolean matchesScreenSizeDp(Configuration configuration) {
+            return (screenWidthDp == configuration.screenWidthDp && screenHeightDp == configuration.screenHeightDp)
+                    || (writtenScreenWidthDp == configuration.screenWidthDp && writtenScreenHeightDp == configuration.screenHeightDp);
+        }
+
+        /**
+         * Android 8.0 及以上 {@link Activity#isInMultiWindowMode()} 只是读取一个字段, 可以每次都比较
+         * Android 7.x 上是一次 IPC 调用, 只在 {@link #update(Activity, Configuration)} 中获取, 这里依靠 {@link Configuration} 中的字段判断
+         */
+        private boolean matchesMultiWindowMode(Activity activity) {
+            return Build.VERSION.SDK_INT < Build.VERSION_CODES.O || isInMultiWindowMode == activity.isInMultiWindowMode();
+        }
+
+        private void update(Activity activity, Configuration configuration) {
+            ScreenUtils.getWindowSize(activity, mSize);
+            statusBarHeight = ScreenUtils.getStatusBarHeight(activity);
+            isStatusBarHeightResolved = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R || isWindowAttached(activity);
+            orientation = configuration.orientation;
+            screenLayout = configuration.screenLayout;
+            smallestScreenWidthDp = configuration.smallestScreenWidthDp;
+            screenWidthDp = configuration.screenWidthDp;
+            screenHeightDp = configuration.screenHeightDp;
+            writtenScreenWidthDp = -1;
+            writtenScreenHeightDp = -1;
+            densityDpi = getDensityDpi(configuration);
+            isInMultiWindowMode = isInMultiWindowMode(activity);
+            isValid = true;
+        }
+
+        private static int getDensityDpi(Configuration configuration) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 ? configuration.densityDpi : 0;
+        }
+
+        /**
+         * 使用 {@link Window#peekDecorView()}, 不会提前创建 DecorView
+         */
+        private static boolean isWindowAttached(Activity activity) {
+            Window window = activity.getWindow();
+            View decorView = window == null ? null : window.peekDecorView();
+            return decorView != null && decorView.getWindowToken() != null;
+        }
+
+        private static boolean isInMultiWindowMode(Activity activity) {
+            return Build.VERSION.SDK_INT >= Build.VERSION_CODES.N && activity.isInMultiWindowMode();
+        }
+    }
+}
@@ -17,6 +17,11 @@ package me.jessyan.autosize;
 
 import android.app.Activity;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import me.jessyan.autosize.utils.AutoSizeTrace;
+
 /**
  * ================================================
  * {@link AutoAdaptStrategy} 的包装者, 用于给 {@link AutoAdaptStrategy} 的实现类增加一些额外的职责
@@ -28,6 +33,10 @@ import android.app.Activity;
  */
 public class WrapperAutoAdaptStrategy implements AutoAdaptStrategy {
     private final AutoAdaptStrategy mAutoAdaptStrategy;
+    /**
+     * 开启 Trace 后才会创建, 缓存每个 {@link Class} 的片段名称, 只会在主线程中被访问
+     */
+    private Map<Class<?>, String> mSectionNames;
 
     public WrapperAutoAdaptStrategy(AutoAdaptStrategy autoAdaptStrategy) {
         mAutoAdaptStrategy = autoAdaptStrategy;
@@ -35,15 +44,51 @@ public class WrapperAutoAdaptStrategy implements AutoAdaptStrategy {
 
     @Override
     public void applyAdapt(Object target, Activity activity) {
-        onAdaptListener onAdaptListener = AutoSizeConfig.getInstance().getOnAdaptListener();
-        if (onAdaptListener != null){
-            onAdaptListener.onAdaptBefore(target, activity);
+        boolean traced = AutoSizeTrace.isEnabled() && AutoSizeTrace.beginSection(getSectionName(target.getClass()));
+        try {
+            onAdaptListener onAdaptListener = AutoSizeConfig.getInstance().getOnAdaptListener();
+            if (onAdaptListener != null){
+                onAdaptListener.onAdaptBefore(target, activity);
+            }
+            AdaptMetricsRecorder metrics = AutoSizeEngine.getMetrics();
+            if (mAutoAdaptStrategy != null) {
+                if (metrics.isEnabled()) {
+                    Object token = metrics.begin(target.getClass());
+                    long start = System.nanoTime();
+                    try {
+                        mAutoAdaptStrategy.applyAdapt(target, activity);
+                    } finally {
+                        metrics.end(token, System.nanoTime() - start);
+                    }
+                } else {
+                    mAutoAdaptStrategy.applyAdapt(target, activity);
+                }
+            }
+            if (onAdaptListener != null){
+                onAdaptListener.onAdaptAfter(target, activity);
+            }
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
         }
-        if (mAutoAdaptStrategy != null) {
-            mAutoAdaptStrategy.applyAdapt(target, activity);
+    }
+
+    /**
+     * 返回 {@code targetClass} 在 Trace 中的片段名称, 每个 {@link Class} 只会拼接和截断一次
+     *
+     * @param targetClass 需要屏幕适配的对象的 {@link Class}
+     * @return 片段名称
+     */
+    private String getSectionName(Class<?> targetClass) {
+        if (mSectionNames == null) {
+            mSectionNames = new HashMap<>();
         }
-        if (onAdaptListener != null){
-            onAdaptListener.onAdaptAfter(target, activity);
+        String sectionName = mSectionNames.get(targetClass);
+        if (sectionName == null) {
+            sectionName = AutoSizeTrace.toSectionName("AutoSize.applyAdapt " + targetClass.getName());
+            mSectionNames.put(targetClass, sectionName);
         }
+        return sectionName;
     }
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.content.res.Configuration;
+import android.content.res.Resources;
+import android.util.DisplayMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * ================================================
+ * 缓存每个 {@link Resources} 在适配时需要被赋值的 {@link DisplayMetrics} 和 {@link Configuration}
+ * <p>
+ * 一次适配需要赋值 {@link android.app.Activity} 和 Application 的 {@link DisplayMetrics}, 以及 {@link ResourcesPatcher} 提供的
+ * {@link DisplayMetrics}, 但很多设备上它们共用同一个 ResourcesImpl, 其中有些其实是同一个对象
+ * 所以这里把每个 {@link Resources} 的赋值对象按实例去重后缓存起来, 赋值多个 {@link Resources} 时也可以跳过已经赋值过的对象
+ * 保证每个对象在一次适配中只被赋值一次
+ * <p>
+ * {@link Resources} 的 ResourcesImpl 在 {@link Configuration} 改变时可能会被替换, 所以每次使用缓存前都会确认
+ * {@link Resources#getDisplayMetrics()} 和 {@link Resources#getConfiguration()} 还是同一个实例, 否则重新获取
+ * <p>
+ * 只允许在主线程中使用
+ * ================================================
+ */
+final class WriteTargetCache {
+    /**
+     * {@link Resources} 没有重写 equals 和 hashCode, 所以这里以实例为 key
+     */
+    private final Map<Resources, WriteTargets> mTargets = new WeakHashMap<>();
+    private final List<DisplayMetrics> mTmpMetrics = new ArrayList<>();
+
+    /**
+     * 返回 {@code resources} 需要被赋值的对象, 缓存有效时不会产生任何对象
+     *
+     * @param resources {@link Resources}
+     * @param patchers  {@link ResourcesPatcherRegistry}
+     * @return {@link WriteTargets}
+     */
+    WriteTargets obtain(Resources resources, ResourcesPatcherRegistry patchers) {
+        DisplayMetrics displayMetrics = resources.getDisplayMetrics();
+        Configuration configuration = resources.getConfiguration();
+        int patcherVersion = patchers.getVersion();
+        WriteTargets targets = mTargets.get(resources);
+        if (targets == null || targets.metrics[0] != displayMetrics || targets.configuration != configuration
+                || targets.patcherVersion != patcherVersion) {
+            targets = resolve(resources, displayMetrics, configuration, patchers, patcherVersion);
+            mTargets.put(resources, targets);
+        }
+        return targets;
+    }
+
+    private WriteTargets resolve(Resources resources, DisplayMetrics displayMetrics, Configuration configuration
+            , ResourcesPatcherRegistry patchers, int patcherVersion) {
+        List<DisplayMetrics> metrics = mTmpMetrics;
+        metrics.clear();
+        metrics.add(displayMetrics);
+        patchers.getExtraDisplayMetrics(resources, metrics);
+        int size = 0;
+        DisplayMetrics[] distinctMetrics = new DisplayMetrics[metrics.size()];
+        for (DisplayMetrics candidate : metrics) {
+            if (!contains(distinctMetrics, size, candidate)) {
+                distinctMetrics[size++] = candidate;
+            }
+        }
+        metrics.clear();
+        if (size < distinctMetrics.length) {
+            DisplayMetrics[] trimmed = new DisplayMetrics[size];
+            System.arraycopy(distinctMetrics, 0, trimmed, 0, size);
+            distinctMetrics = trimmed;
+        }
+        return new WriteTargets(distinctMetrics, configuration, patcherVersion);
+    }
+
+    private static boolean contains(DisplayMetrics[] metrics, int size, DisplayMetrics target) {
+        for (int i = 0; i < size; i++) {
+            if (metrics[i] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 清除所有缓存
+     */
+    void clear() {
+        mTargets.clear();
+    }
+
+    /**
+     * 一个 {@link Resources} 需要被赋值的对象, 已经按实例去重, 第一个 {@link DisplayMetrics} 永远是 {@link Resources#getDisplayMetrics()}
+     */
+    static final class WriteTargets {
+        final DisplayMetrics[] metrics;
+        final Configuration configuration;
+        final int patcherVersion;
+
+        WriteTargets(DisplayMetrics[] metrics, Configuration configuration, int patcherVersion) {
+            this.metrics = metrics;
+            this.configuration = configuration;
+            this.patcherVersion = patcherVersion;
+        }
+
+        boolean contains(DisplayMetrics displayMetrics) {
+            return WriteTargetCache.contains(metrics, metrics.length, displayMetrics);
+        }
+    }
+}
@@ -17,30 +17,34 @@ package me.jessyan.autosize.external;
 
 import android.app.Activity;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
-import me.jessyan.autosize.AutoSizeConfig;
 import me.jessyan.autosize.utils.Preconditions;
 
 /**
  * ================================================
- * 管理三方库的适配信息和状态, 通过 {@link AutoSizeConfig#getExternalAdaptManager()} 获取, 切勿自己 new
+ * 管理三方库的适配信息和状态, 通过 {@link me.jessyan.autosize.AutoSizeConfig#getExternalAdaptManager()} 获取, 切勿自己 new
  * AndroidAutoSize 通过实现接口的方式来让每个 {@link Activity} 都具有自定义适配参数的功能, 从而让每个 {@link Activity} 都可以自定义适配效果
  * 但通过远程依赖的三方库并不能修改源码, 所以也不能让三方库的 {@link Activity} 实现接口, 实现接口的方式就显得无能为力
  * {@link ExternalAdaptManager} 就是专门用来处理这个问题, 项目初始化时把对应的三方库 {@link Activity} 传入 {@link ExternalAdaptManager} 即可
  * <p>
+ * 所有规则都保存在一个不可变的 {@link Rules} 中, 修改规则时复制一份新的 {@link Rules} 再整体替换 (copy-on-write)
+ * 所以查询规则时不需要加锁, 并且以 {@link Class} 实例为 key, 不需要再调用 {@link Class#getCanonicalName()}
+ * 需要注册大量规则时, 请使用 {@link #addCancelAdaptOfActivities(Collection)} 和 {@link #addExternalAdaptInfoOfActivities(Map)}
+ * 一次性提交, 只会替换一次 {@link Rules}
+ * <p>
  * Created by JessYan on 2018/8/10 14:40
  * <a href="mailto:jess.yan.effort@gmail.com">Contact me</a>
  * <a href="https://github.com/JessYanCoding">Follow me</a>
  * ================================================
  */
 public class ExternalAdaptManager {
-    private List<String> mCancelAdaptList;
-    private Map<String, ExternalAdaptInfo> mExternalAdaptInfos;
-    private boolean isRun;
+    private volatile Rules mRules = Rules.EMPTY;
 
     /**
      * 将不需要适配的第三方库 {@link Activity} 添加进来 (但不局限于三方库), 即可让该 {@link Activity} 的适配效果失效
@@ -50,15 +54,43 @@ public class ExternalAdaptManager {
      *
      * @param targetClass {@link Activity} class, Fragment class
      */
-    public synchronized ExternalAdaptManager addCancelAdaptOfActivity(Class<?> targetClass) {
+    public ExternalAdaptManager addCancelAdaptOfActivity(Class<?> targetClass) {
         Preconditions.checkNotNull(targetClass, "targetClass == null");
-        if (!isRun) {
-            isRun = true;
+        return addCancelAdaptOfActivities(Collections.<Class<?>>singleton(targetClass));
+    }
+
+    /**
+     * 批量添加不需要适配的 {@link Activity}, 所有规则只会在最后一次性生效
+     *
+     * @param targetClasses {@link Activity} class, Fragment class
+     * @see #addCancelAdaptOfActivity(Class)
+     */
+    public ExternalAdaptManager addCancelAdaptOfActivities(Collection<? extends Class<?>> targetClasses) {
+        Preconditions.checkNotNull(targetClasses, "targetClasses == null");
+        synchronized (this) {
+            Rules rules = mRules.copy();
+            for (Class<?> targetClass : targetClasses) {
+                Preconditions.checkNotNull(targetClass, "targetClass == null");
+                rules.cancelAdaptClasses.add(targetClass);
+            }
+            publish(rules, true);
         }
-        if (mCancelAdaptList == null) {
-            mCancelAdaptList = new ArrayList<>();
+        return this;
+    }
+
+    /**
+     * 通过类名添加不需要适配的 {@link Activity}, 适用于无法直接引用或者还未被加载的类
+     * 以类名添加的规则需要在适配时调用一次 {@link Class#getCanonicalName()} 进行匹配, 所以能使用 {@link Class} 时请优先使用 {@link Class}
+     *
+     * @param canonicalName {@link Activity} 或 Fragment 的 {@link Class#getCanonicalName()}
+     */
+    public ExternalAdaptManager addCancelAdaptOfActivity(String canonicalName) {
+        Preconditions.checkNotNull(canonicalName, "canonicalName == null");
+        synchronized (this) {
+            Rules rules = mRules.copy();
+            rules.cancelAdaptNames.add(canonicalName);
+            publish(rules, true);
         }
-        mCancelAdaptList.add(targetClass.getCanonicalName());
         return this;
     }
 
@@ -80,15 +112,44 @@ public class ExternalAdaptManager {
      * @param targetClass {@link Activity} class, Fragment class
      * @param info        {@link ExternalAdaptInfo} 适配参数
      */
-    public synchronized ExternalAdaptManager addExternalAdaptInfoOfActivity(Class<?> targetClass, ExternalAdaptInfo info) {
+    public ExternalAdaptManager addExternalAdaptInfoOfActivity(Class<?> targetClass, ExternalAdaptInfo info) {
         Preconditions.checkNotNull(targetClass, "targetClass == null");
-        if (!isRun) {
-            isRun = true;
+        return addExternalAdaptInfoOfActivities(Collections.<Class<?>, ExternalAdaptInfo>singletonMap(targetClass, info));
+    }
+
+    /**
+     * 批量添加需要提供自定义适配参数的 {@link Activity}, 所有规则只会在最后一次性生效
+     *
+     * @param infos key 为 {@link Activity} class 或 Fragment class, value 为 {@link ExternalAdaptInfo} 适配参数
+     * @see #addExternalAdaptInfoOfActivity(Class, ExternalAdaptInfo)
+     */
+    public ExternalAdaptManager addExternalAdaptInfoOfActivities(Map<? extends Class<?>, ? extends ExternalAdaptInfo> infos) {
+        Preconditions.checkNotNull(infos, "infos == null");
+        synchronized (this) {
+            Rules rules = mRules.copy();
+            for (Map.Entry<? extends Class<?>, ? extends ExternalAdaptInfo> entry : infos.entrySet()) {
+                Preconditions.checkNotNull(entry.getKey(), "targetClass == null");
+                rules.externalAdaptInfos.put(entry.getKey(), entry.getValue());
+            }
+            publish(rules, true);
         }
-        if (mExternalAdaptInfos == null) {
-            mExternalAdaptInfos = new HashMap<>(16);
+        return this;
+    }
+
+    /**
+     * 通过类名添加需要提供自定义适配参数的 {@link Activity}, 适用于无法直接引用或者还未被加载的类
+     *
+     * @param canonicalName {@link Activity} 或 Fragment 的 {@link Class#getCanonicalName()}
+     * @param info          {@link ExternalAdaptInfo} 适配参数
+     * @see #addCancelAdaptOfActivity(String)
+     */
+    public ExternalAdaptManager addExternalAdaptInfoOfActivity(String canonicalName, ExternalAdaptInfo info) {
+        Preconditions.checkNotNull(canonicalName, "canonicalName == null");
+        synchronized (this) {
+            Rules rules = mRules.copy();
+            rules.externalAdaptInfoNames.put(canonicalName, info);
+            publish(rules, true);
         }
-        mExternalAdaptInfos.put(targetClass.getCanonicalName(), info);
         return this;
     }
 
@@ -98,12 +159,13 @@ public class ExternalAdaptManager {
      * @param targetClass {@link Activity} class, Fragment class
      * @return {@code true} 为存在, {@code false} 为不存在
      */
-    public synchronized boolean isCancelAdapt(Class<?> targetClass) {
+    public boolean isCancelAdapt(Class<?> targetClass) {
         Preconditions.checkNotNull(targetClass, "targetClass == null");
-        if (mCancelAdaptList == null) {
-            return false;
+        Rules rules = mRules;
+        if (rules.cancelAdaptClasses.contains(targetClass)) {
+            return true;
         }
-        return mCancelAdaptList.contains(targetClass.getCanonicalName());
+        return !rules.cancelAdaptNames.isEmpty() && rules.cancelAdaptNames.contains(targetClass.getCanonicalName());
     }
 
     /**
@@ -112,12 +174,14 @@ public class ExternalAdaptManager {
      * @param targetClass {@link Activity} class, Fragment class
      * @return 如果返回 {@code null} 则说明该 {@link Activity} 没有提供自定义的适配参数
      */
-    public synchronized ExternalAdaptInfo getExternalAdaptInfoOfActivity(Class<?> targetClass) {
+    public ExternalAdaptInfo getExternalAdaptInfoOfActivity(Class<?> targetClass) {
         Preconditions.checkNotNull(targetClass, "targetClass == null");
-        if (mExternalAdaptInfos == null) {
-            return null;
+        Rules rules = mRules;
+        ExternalAdaptInfo info = rules.externalAdaptInfos.get(targetClass);
+        if (info == null && !rules.externalAdaptInfoNames.isEmpty()) {
+            info = rules.externalAdaptInfoNames.get(targetClass.getCanonicalName());
         }
-        return mExternalAdaptInfos.get(targetClass.getCanonicalName());
+        return info;
     }
 
     /**
@@ -126,7 +190,7 @@ public class ExternalAdaptManager {
      * @return {@code true} 为已经启动, {@code false} 为没有启动
      */
     public boolean isRun() {
-        return isRun;
+        return mRules.isRun;
     }
 
     /**
@@ -135,7 +199,61 @@ public class ExternalAdaptManager {
      * @param run {@code true} 为让管理器启动运行, {@code false} 为让管理器停止运行
      */
     public ExternalAdaptManager setRun(boolean run) {
-        isRun = run;
+        synchronized (this) {
+            publish(mRules.copy(), run);
+        }
         return this;
     }
+
+    /**
+     * 返回规则的版本号, 每次修改规则或运行状态都会递增
+     *
+     * @return 规则的版本号
+     */
+    public int getVersion() {
+        return mRules.version;
+    }
+
+    /**
+     * 发布新的规则, 调用者必须持有 {@code this} 锁
+     *
+     * @param rules 复制出来并修改过的 {@link Rules}
+     * @param run   是否运行
+     */
+    private void publish(Rules rules, boolean run) {
+        rules.isRun = run;
+        rules.version = mRules.version + 1;
+        mRules = rules;
+    }
+
+    /**
+     * 适配规则, 被发布 (赋值给 {@link #mRules}) 之后就不会再被修改
+     */
+    private static final class Rules {
+        static final Rules EMPTY = new Rules(new HashSet<Class<?>>(), new HashSet<String>()
+                , new HashMap<Class<?>, ExternalAdaptInfo>(), new HashMap<String, ExternalAdaptInfo>());
+
+        final Set<Class<?>> cancelAdaptClasses;
+        final Set<String> cancelAdaptNames;
+        final Map<Class<?>, ExternalAdaptInfo> externalAdaptInfos;
+        final Map<String, ExternalAdaptInfo> externalAdaptInfoNames;
+        boolean isRun;
+        int version;
+
+        Rules(Set<Class<?>> cancelAdaptClasses, Set<String> cancelAdaptNames
+                , Map<Class<?>, ExternalAdaptInfo> externalAdaptInfos, Map<String, ExternalAdaptInfo> externalAdaptInfoNames) {
+            this.cancelAdaptClasses = cancelAdaptClasses;
+            this.cancelAdaptNames = cancelAdaptNames;
+            this.externalAdaptInfos = externalAdaptInfos;
+            this.externalAdaptInfoNames = externalAdaptInfoNames;
+        }
+
+        Rules copy() {
+            Rules rules = new Rules(new HashSet<>(cancelAdaptClasses), new HashSet<>(cancelAdaptNames)
+                    , new HashMap<>(externalAdaptInfos), new HashMap<>(externalAdaptInfoNames));
+            rules.isRun = isRun;
+            rules.version = version;
+            return rules;
+        }
+    }
 }
@@ -17,6 +17,8 @@ package me.jessyan.autosize.unit;
 
 import android.util.DisplayMetrics;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import me.jessyan.autosize.utils.Preconditions;
 
 /**
@@ -72,6 +74,11 @@ public class UnitsManager {
      * 是否支持 ScreenSizeDp 修改, 默认不支持
      */
     private boolean isSupportScreenSizeDP = false;
+    /**
+     * 每次修改都会递增, AndroidAutoSize 据此判断缓存的配置是否需要更新
+     * 修改可能来自不同的线程, 使用 {@link AtomicInteger} 保证并发修改时不会丢失递增
+     */
+    private final AtomicInteger mVersion = new AtomicInteger();
 
     /**
      * 设置设计图尺寸
@@ -107,6 +114,7 @@ public class UnitsManager {
     public UnitsManager setDesignWidth(float designWidth) {
         Preconditions.checkArgument(designWidth > 0, "designWidth must be > 0");
         mDesignWidth = designWidth;
+        mVersion.incrementAndGet();
         return this;
     }
 
@@ -129,6 +137,7 @@ public class UnitsManager {
     public UnitsManager setDesignHeight(float designHeight) {
         Preconditions.checkArgument(designHeight > 0, "designHeight must be > 0");
         mDesignHeight = designHeight;
+        mVersion.incrementAndGet();
         return this;
     }
 
@@ -148,6 +157,7 @@ public class UnitsManager {
      */
     public UnitsManager setSupportDP(boolean supportDP) {
         isSupportDP = supportDP;
+        mVersion.incrementAndGet();
         return this;
     }
 
@@ -167,6 +177,7 @@ public class UnitsManager {
      */
     public UnitsManager setSupportSP(boolean supportSP) {
         isSupportSP = supportSP;
+        mVersion.incrementAndGet();
         return this;
     }
 
@@ -195,6 +206,7 @@ public class UnitsManager {
      */
     public UnitsManager setSupportScreenSizeDP(boolean supportScreenSizeDP) {
         isSupportScreenSizeDP = supportScreenSizeDP;
+        mVersion.incrementAndGet();
         return this;
     }
 
@@ -208,6 +220,16 @@ public class UnitsManager {
     public UnitsManager setSupportSubunits(Subunits supportSubunits) {
         mSupportSubunits = Preconditions.checkNotNull(supportSubunits,
                 "The supportSubunits can not be null, use Subunits.NONE instead");
+        mVersion.incrementAndGet();
         return this;
     }
+
+    /**
+     * 返回版本号, 每次修改都会递增
+     *
+     * @return 版本号
+     */
+    public int getVersion() {
+        return mVersion.get();
+    }
 }
@@ -17,8 +17,20 @@ package me.jessyan.autosize.utils;
 
 import android.util.Log;
 
+import java.util.Locale;
+
 /**
  * ================================================
+ * AndroidAutoSize 的日志工具类
+ * <p>
+ * 带有 {@code format} 参数的方法只有在 {@link #isDebug()} 为 {@code true} 时才会格式化日志, 但调用时依然会产生可变参数数组和装箱
+ * 所以在适配这种频繁执行的代码中, 请先判断 {@link #isDebug()} 再调用, 这样关闭日志后不会产生任何对象
+ * <pre>
+ * if (AutoSizeLog.isDebug()) {
+ *     AutoSizeLog.d("%s has been adapted, density = %f", name, density);
+ * }
+ * </pre>
+ * <p>
  * Created by JessYan on 2018/8/8 18:48
  * <a href="mailto:jess.yan.effort@gmail.com">Contact me</a>
  * <a href="https://github.com/JessYanCoding">Follow me</a>
@@ -57,4 +69,22 @@ public class AutoSizeLog {
             Log.e(TAG, message);
         }
     }
+
+    public static void d(String format, Object... args) {
+        if (debug) {
+            Log.d(TAG, String.format(Locale.ENGLISH, format, args));
+        }
+    }
+
+    public static void w(String format, Object... args) {
+        if (debug) {
+            Log.w(TAG, String.format(Locale.ENGLISH, format, args));
+        }
+    }
+
+    public static void e(String format, Object... args) {
+        if (debug) {
+            Log.e(TAG, String.format(Locale.ENGLISH, format, args));
+        }
+    }
 }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.utils;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * ================================================
+ * AndroidAutoSize 的 Trace 工具类, 开启后会在初始化、适配、赋值以及 {@link ScreenUtils} 的查询中写入 {@link Trace} 片段
+ * 这样在 Perfetto 或 Systrace 中就可以直接看到 AndroidAutoSize 在冷启动和页面启动时的耗时, 片段名称都以 {@code AutoSize.} 开头
+ * <p>
+ * {@link Trace} 只有 Android 4.3 及以上才支持, 低版本上开启后不会有任何效果, 关闭时每个片段只有一次布尔判断
+ * 调用 {@link #beginSection(String)} 时请使用它的返回值决定是否调用 {@link #endSection()}, 这样中途切换开关也不会导致片段不匹配
+ * <pre>
+ * boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_SET_DENSITY);
+ * try {
+ *     ...
+ * } finally {
+ *     if (traced) {
+ *         AutoSizeTrace.endSection();
+ *     }
+ * }
+ * </pre>
+ * ================================================
+ */
+public class AutoSizeTrace {
+    public static final String SECTION_INIT_REGISTER = "AutoSize.init.register";
+    public static final String SECTION_INIT_META_DATA = "AutoSize.init.metaData";
+    public static final String SECTION_INIT_SCREEN_SIZE = "AutoSize.init.screenSize";
+    public static final String SECTION_INIT_STATUS_BAR_HEIGHT = "AutoSize.init.statusBarHeight";
+    public static final String SECTION_INIT_MIUI = "AutoSize.init.miui";
+    public static final String SECTION_COMPUTE = "AutoSize.compute";
+    public static final String SECTION_CACHE_HIT = "AutoSize.cacheHit";
+    public static final String SECTION_SET_DENSITY = "AutoSize.setDensity";
+    public static final String SECTION_SCREEN_SIZE = "AutoSize.ScreenUtils.getScreenSize";
+    public static final String SECTION_WINDOW_SIZE = "AutoSize.ScreenUtils.getWindowSize";
+    public static final String SECTION_RAW_SCREEN_SIZE = "AutoSize.ScreenUtils.getRawScreenSize";
+    public static final String SECTION_STATUS_BAR_HEIGHT = "AutoSize.ScreenUtils.getStatusBarHeight";
+    public static final String SECTION_NAVIGATION_BAR_HEIGHT = "AutoSize.ScreenUtils.getHeightOfNavigationBar";
+    /**
+     * {@link Trace#beginSection(String)} 允许的最大长度, 超出会抛出异常
+     */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+    /**
+     * 可能在任意线程中开启或关闭, 而片段大多在主线程中开始
+     */
+    private static volatile boolean enabled;
+
+    private AutoSizeTrace() {
+        throw new IllegalStateException("you can't instantiate me!");
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        AutoSizeTrace.enabled = enabled && Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2;
+    }
+
+    /**
+     * 开始一个片段, 过长的名称只会保留末尾部分
+     * 名称是动态拼接出来的话, 请先通过 {@link #toSectionName(String)} 截断并缓存, 避免每次调用都截取一次
+     *
+     * @param sectionName 片段名称
+     * @return {@code true} 表示已经开始了一个片段, 需要调用 {@link #endSection()}
+     */
+    public static boolean beginSection(String sectionName) {
+        if (!enabled) {
+            return false;
+        }
+        Trace.beginSection(toSectionName(sectionName));
+        return true;
+    }
+
+    /**
+     * 将名称截断为 {@link Trace#beginSection(String)} 允许的长度, 只保留末尾部分, 没有超出时返回原来的字符串
+     *
+     * @param name 名称
+     * @return 片段名称
+     */
+    public static String toSectionName(String name) {
+        if (name.length() > MAX_SECTION_NAME_LENGTH) {
+            return name.substring(name.length() - MAX_SECTION_NAME_LENGTH);
+        }
+        return name;
+    }
+
+    /**
+     * 结束最近一个由 {@link #beginSection(String)} 开始的片段, 只有 {@link #beginSection(String)} 返回 {@code true} 时才能调用
+     */
+    public static void endSection() {
+        Trace.endSection();
+    }
+}
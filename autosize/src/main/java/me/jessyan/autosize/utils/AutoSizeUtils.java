@@ -17,6 +17,7 @@ package me.jessyan.autosize.utils;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.util.TypedValue;
 import android.app.Application;
 
@@ -56,6 +57,17 @@ public class AutoSizeUtils {
     public static int mm2px(Context context, float value) {
         return (int) (TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_MM, value, context.getResources().getDisplayMetrics()) + 0.5f);
     }
+
+    /**
+     * 当前 App 是否是 debuggable 的包
+     *
+     * @param context {@link Context}
+     * @return {@code true} 为 debuggable
+     */
+    public static boolean isDebuggable(Context context) {
+        ApplicationInfo applicationInfo = context.getApplicationInfo();
+        return applicationInfo != null && (applicationInfo.flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+    }
     
     public static Application getApplicationByReflect() {
         try {
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.utils;
+
+import android.annotation.TargetApi;
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Insets;
+import android.graphics.Point;
+import android.graphics.Rect;
+import android.hardware.display.DisplayManager;
+import android.os.Build;
+import android.os.Looper;
+import android.util.DisplayMetrics;
+import android.view.Display;
+import android.view.View;
+import android.view.WindowInsets;
+import android.view.WindowManager;
+import android.view.WindowMetrics;
+
+import java.lang.reflect.Method;
+
+/**
+ * ================================================
+ * {@link ScreenMetricsProvider} 的默认实现
+ * <p>
+ * Android 4.2 及以上直接调用 {@link Display#getRealSize(Point)}, Android 4.0 ~ 4.1 上 getRawWidth 和 getRawHeight 是隐藏方法
+ * 只能通过反射调用, 对应的 {@link Method} 在第一次用到时查找一次并缓存, 之后不会再次查找
+ * 在主线程中调用时复用同一个 {@link DisplayMetrics} 和 {@link Point}, 不会产生任何对象, 在其他线程中调用时每次都会新建
+ * 状态栏高度对应的资源 id 也只会通过名称查找一次
+ * <p>
+ * Android 11 开始被标记为过时的方法只在各自的旧版本分支中调用, 并且都单独放在标记了 {@code @SuppressWarnings("deprecation")} 的方法中
+ * ================================================
+ */
+public class DefaultScreenMetricsProvider implements ScreenMetricsProvider {
+    private static volatile int sStatusBarHeightResId = -1;
+    /**
+     * 只会在主线程中被使用
+     */
+    private final DisplayMetrics mMainThreadMetrics = new DisplayMetrics();
+    private final Point mMainThreadPoint = new Point();
+
+    @Override
+    public void getScreenSize(Context context, int[] outSize) {
+        DisplayMetrics metrics = obtainMetrics();
+        getMetrics(getDefaultDisplay(context), metrics);
+        outSize[0] = metrics.widthPixels;
+        outSize[1] = metrics.heightPixels;
+    }
+
+    @Override
+    public void getRawScreenSize(Context context, int[] outSize) {
+        Display display = getDefaultDisplay(context);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            getRealSize(display, outSize);
+            return;
+        }
+        DisplayMetrics metrics = obtainMetrics();
+        getMetrics(display, metrics);
+        outSize[0] = metrics.widthPixels;
+        outSize[1] = metrics.heightPixels;
+        // includes window decorations (statusbar bar/menu bar)
+        if (RawSizeMethods.GET_RAW_WIDTH != null && RawSizeMethods.GET_RAW_HEIGHT != null) {
+            try {
+                outSize[0] = (Integer) RawSizeMethods.GET_RAW_WIDTH.invoke(display);
+                outSize[1] = (Integer) RawSizeMethods.GET_RAW_HEIGHT.invoke(display);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    /**
+     * {@link Display#getRealSize(Point)} 在 Android 12 开始被标记为过时, 这里获取的是默认屏幕的原始尺寸, 没有等价的替代方法
+     */
+    @SuppressWarnings("deprecation")
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+    private void getRealSize(Display display, int[] outSize) {
+        Point realSize = isMainThread() ? mMainThreadPoint : new Point();
+        display.getRealSize(realSize);
+        outSize[0] = realSize.x;
+        outSize[1] = realSize.y;
+    }
+
+    @Override
+    public void getWindowSize(Activity activity, int[] outSize) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            getWindowSizeOnR(activity, outSize);
+        } else {
+            getWindowSizeBeforeR(activity, outSize);
+        }
+    }
+
+    /**
+     * Android 11 以下没有 {@link WindowMetrics}, 只能使用 {@link Activity} 所在的 {@link Display}
+     */
+    @SuppressWarnings("deprecation")
+    private void getWindowSizeBeforeR(Activity activity, int[] outSize) {
+        DisplayMetrics metrics = obtainMetrics();
+        activity.getWindowManager().getDefaultDisplay().getMetrics(metrics);
+        outSize[0] = metrics.widthPixels;
+        outSize[1] = metrics.heightPixels;
+    }
+
+    @TargetApi(Build.VERSION_CODES.R)
+    private static void getWindowSizeOnR(Activity activity, int[] outSize) {
+        WindowMetrics metrics = activity.getWindowManager().getCurrentWindowMetrics();
+        //与 Display#getSize 保持一致, 去掉导航栏和刘海所占的区域
+        Insets insets = metrics.getWindowInsets().getInsetsIgnoringVisibility(WindowInsets.Type.navigationBars()
+                | WindowInsets.Type.displayCutout());
+        Rect bounds = metrics.getBounds();
+        outSize[0] = bounds.width() - insets.left - insets.right;
+        outSize[1] = bounds.height() - insets.top - insets.bottom;
+    }
+
+    @Override
+    public int getStatusBarHeight() {
+        int result = 0;
+        try {
+            int resourceId = getStatusBarHeightResId();
+            if (resourceId > 0) {
+                result = Resources.getSystem().getDimensionPixelSize(resourceId);
+            }
+        } catch (Resources.NotFoundException e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Android 11 及以上直接使用 {@link WindowMetrics} 中的 {@link WindowInsets}, Android 6.0 及以上并且窗口已经显示时使用
+     * {@link View#getRootWindowInsets()}, 其余情况使用 {@link #getStatusBarHeight()}
+     * 使用的都是忽略可见性的 Insets, 所以进入或退出沉浸模式不会改变返回值, 避免适配结果随之变化导致页面重新布局
+     */
+    @Override
+    public int getStatusBarHeight(Activity activity) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            return getStatusBarHeightOnR(activity);
+        }
+        //不能使用 getDecorView(), 在 onActivityCreated 中调用会提前创建 DecorView, 导致之后调用 requestWindowFeature 时崩溃
+        View decorView = activity.getWindow() == null ? null : activity.getWindow().peekDecorView();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M && decorView != null) {
+            WindowInsets insets = decorView.getRootWindowInsets();
+            if (insets != null) {
+                return getStableInsetTop(insets);
+            }
+        }
+        return getStatusBarHeight();
+    }
+
+    @TargetApi(Build.VERSION_CODES.R)
+    private static int getStatusBarHeightOnR(Activity activity) {
+        WindowInsets insets = activity.getWindowManager().getCurrentWindowMetrics().getWindowInsets();
+        //getWindowSizeOnR 已经减去了导航栏和刘海占用的高度, 这里只返回状态栏额外占用的部分
+        int top = insets.getInsetsIgnoringVisibility(WindowInsets.Type.statusBars() | WindowInsets.Type.navigationBars()
+                | WindowInsets.Type.displayCutout()).top;
+        int subtractedTop = insets.getInsetsIgnoringVisibility(WindowInsets.Type.navigationBars()
+                | WindowInsets.Type.displayCutout()).top;
+        return Math.max(0, top - subtractedTop);
+    }
+
+    /**
+     * 只在 Android 6.0 ~ 10 上调用, Android 11 及以上使用 {@link #getStatusBarHeightOnR(Activity)}
+     */
+    @SuppressWarnings("deprecation")
+    @TargetApi(Build.VERSION_CODES.M)
+    private static int getStableInsetTop(WindowInsets insets) {
+        return insets.getStableInsetTop();
+    }
+
+    /**
+     * 通过名称查找资源 id 比较耗时, 所以只查找一次, 获取尺寸时每次都使用当前的 {@link android.content.res.Configuration}
+     * 所以屏幕旋转后也能获取到正确的值
+     */
+    private static int getStatusBarHeightResId() {
+        int resourceId = sStatusBarHeightResId;
+        if (resourceId == -1) {
+            resourceId = Resources.getSystem().getIdentifier("status_bar_height", "dimen", "android");
+            sStatusBarHeightResId = resourceId;
+        }
+        return resourceId;
+    }
+
+    /**
+     * 返回默认屏幕, Android 4.2 及以上通过 {@link DisplayManager} 获取, 以下只能使用 {@link WindowManager#getDefaultDisplay()}
+     *
+     * @param context {@link Context}
+     * @return 默认屏幕的 {@link Display}
+     */
+    private static Display getDefaultDisplay(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return ((DisplayManager) context.getSystemService(Context.DISPLAY_SERVICE)).getDisplay(Display.DEFAULT_DISPLAY);
+        }
+        return getDefaultDisplayBeforeJellyBeanMR1(context);
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Display getDefaultDisplayBeforeJellyBeanMR1(Context context) {
+        return ((WindowManager) context.getSystemService(Context.WINDOW_SERVICE)).getDefaultDisplay();
+    }
+
+    /**
+     * {@link Display#getMetrics(DisplayMetrics)} 在 Android 11 开始被标记为过时, 替代它的 {@link WindowMetrics} 只能从 {@link Activity}
+     * 等可以显示界面的 {@link Context} 中获取, 而这里获取的是 Application 的默认屏幕中可以使用的区域, 所以继续使用
+     */
+    @SuppressWarnings("deprecation")
+    private static void getMetrics(Display display, DisplayMetrics outMetrics) {
+        display.getMetrics(outMetrics);
+    }
+
+    private DisplayMetrics obtainMetrics() {
+        return isMainThread() ? mMainThreadMetrics : new DisplayMetrics();
+    }
+
+    private static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * Android 4.0 ~ 4.1 上获取原始屏幕尺寸的隐藏方法, 只有第一次用到时才会查找
+     */
+    private static final class RawSizeMethods {
+        static final Method GET_RAW_WIDTH = findMethod("getRawWidth");
+        static final Method GET_RAW_HEIGHT = findMethod("getRawHeight");
+
+        private static Method findMethod(String name) {
+            try {
+                return Display.class.getMethod(name);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.utils;
+
+import android.content.ComponentCallbacks;
+import android.content.Context;
+import android.content.res.Configuration;
+import android.database.ContentObserver;
+import android.os.Build;
+import android.provider.Settings;
+
+/**
+ * ================================================
+ * 缓存导航栏的高度, 代替在每次调用 {@link ScreenUtils#getHeightOfNavigationBar(Context)} 时都通过 ContentResolver 查询
+ * {@code force_fsg_nav_bar} (可能是一次跨进程调用), 再获取两次屏幕尺寸
+ * <p>
+ * 以下情况会将缓存标记为失效, 下一次读取时才重新计算, 其余时候读取导航栏高度只是读取一个字段:
+ * 1. 通过 {@link ContentObserver} 监听到 {@code force_fsg_nav_bar} 改变 (小米全面屏手势, Android 4.2 及以上)
+ * 2. Application 的 {@link Configuration} 改变 (屏幕旋转、折叠屏展开、导航方式切换等)
+ * 3. 调用 {@link ScreenUtils#invalidateNavigationBarHeight()} (如 WindowInsets 改变时) 或替换 {@link ScreenMetricsProvider}
+ * <p>
+ * 可以在任意线程中使用
+ * ================================================
+ */
+final class NavigationBarTracker {
+    private static final String KEY_FORCE_FSG_NAV_BAR = "force_fsg_nav_bar";
+    private final Context mContext;
+    private final int[] mSize = new int[2];
+    private volatile boolean isDirty = true;
+    private volatile int mHeight;
+
+    NavigationBarTracker(Context context) {
+        mContext = context.getApplicationContext() != null ? context.getApplicationContext() : context;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            mContext.getContentResolver().registerContentObserver(Settings.Global.getUriFor(KEY_FORCE_FSG_NAV_BAR), false
+                    , new ContentObserver(null) {
+                        @Override
+                        public void onChange(boolean selfChange) {
+                            invalidate();
+                        }
+                    });
+        }
+        mContext.registerComponentCallbacks(new ComponentCallbacks() {
+            @Override
+            public void onConfigurationChanged(Configuration newConfig) {
+                invalidate();
+            }
+
+            @Override
+            public void onLowMemory() {
+
+            }
+        });
+    }
+
+    /**
+     * 返回导航栏的高度, 缓存有效时只读取一个字段
+     *
+     * @return 导航栏的高度, 小米手机开启了全面屏手势隐藏了导航栏则返回 0
+     */
+    int getHeight() {
+        if (isDirty) {
+            update();
+        }
+        return mHeight;
+    }
+
+    /**
+     * 将缓存标记为失效, 下一次读取时重新计算
+     */
+    void invalidate() {
+        isDirty = true;
+    }
+
+    private synchronized void update() {
+        if (!isDirty) {
+            return;
+        }
+        //先清除标记, 计算过程中如果又发生了变化, 下一次读取时会再次计算
+        isDirty = false;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1
+                && Settings.Global.getInt(mContext.getContentResolver(), KEY_FORCE_FSG_NAV_BAR, 0) != 0) {
+            mHeight = 0;
+            return;
+        }
+        ScreenUtils.getRawScreenSize(mContext, mSize);
+        int realHeight = mSize[1];
+        ScreenUtils.getScreenSize(mContext, mSize);
+        mHeight = realHeight - mSize[1];
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize.utils;
+
+import android.app.Activity;
+import android.content.Context;
+
+/**
+ * ================================================
+ * 屏幕尺寸的提供者, {@link ScreenUtils} 以及 AndroidAutoSize 内部获取屏幕尺寸、窗口尺寸和状态栏高度时都通过它完成
+ * 默认使用 {@link DefaultScreenMetricsProvider}, 可以通过 {@link me.jessyan.autosize.AutoSizeConfig#setScreenMetricsProvider(ScreenMetricsProvider)}
+ * 替换为自己的实现, 比如在单元测试或基准测试中注入固定的屏幕尺寸, 让结果不受运行设备的影响
+ * <p>
+ * 获取尺寸的方法都会把结果写入调用者传入的数组, 这样频繁调用时不需要每次都创建新的数组
+ * 这些方法可能会在任意线程中被调用, 实现类需要保证线程安全
+ * ================================================
+ */
+public interface ScreenMetricsProvider {
+
+    /**
+     * 获取当前的屏幕尺寸, 不包含导航栏
+     *
+     * @param context {@link Context}
+     * @param outSize 用于接收宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    void getScreenSize(Context context, int[] outSize);
+
+    /**
+     * 获取原始的屏幕尺寸, 包含状态栏和导航栏
+     *
+     * @param context {@link Context}
+     * @param outSize 用于接收宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    void getRawScreenSize(Context context, int[] outSize);
+
+    /**
+     * 获取 {@link Activity} 所在窗口的尺寸, 不包含导航栏, 但包含状态栏
+     *
+     * @param activity {@link Activity}
+     * @param outSize  用于接收宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    void getWindowSize(Activity activity, int[] outSize);
+
+    /**
+     * 获取状态栏高度
+     *
+     * @return 状态栏高度
+     */
+    int getStatusBarHeight();
+
+    /**
+     * 获取 {@link Activity} 所在窗口顶部被状态栏 (以及刘海) 占用的高度, 也就是从 {@link #getWindowSize(Activity, int[])}
+     * 返回的窗口高度中还需要减去的高度, 窗口不在屏幕顶部 (如分屏的下半部分) 时应该返回 0
+     *
+     * @param activity {@link Activity}
+     * @return 状态栏高度
+     */
+    int getStatusBarHeight(Activity activity);
+}
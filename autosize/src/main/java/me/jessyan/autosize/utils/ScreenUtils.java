@@ -15,14 +15,8 @@
  */
 package me.jessyan.autosize.utils;
 
+import android.app.Activity;
 import android.content.Context;
-import android.content.res.Resources;
-import android.graphics.Point;
-import android.os.Build;
-import android.provider.Settings;
-import android.util.DisplayMetrics;
-import android.view.Display;
-import android.view.WindowManager;
 
 /**
  * ================================================
@@ -32,22 +26,55 @@ import android.view.WindowManager;
  * ================================================
  */
 public class ScreenUtils {
+    private static volatile ScreenMetricsProvider sProvider = new DefaultScreenMetricsProvider();
+    private static volatile NavigationBarTracker sNavigationBarTracker;
 
     private ScreenUtils() {
         throw new IllegalStateException("you can't instantiate me!");
     }
 
+    /**
+     * 替换获取屏幕尺寸的 {@link ScreenMetricsProvider}, 一般在单元测试或基准测试中注入固定的屏幕尺寸时使用
+     *
+     * @param provider {@link ScreenMetricsProvider}
+     */
+    public static void setScreenMetricsProvider(ScreenMetricsProvider provider) {
+        Preconditions.checkNotNull(provider, "provider == null");
+        sProvider = provider;
+        invalidateNavigationBarHeight();
+    }
+
+    public static ScreenMetricsProvider getScreenMetricsProvider() {
+        return sProvider;
+    }
+
     public static int getStatusBarHeight() {
-        int result = 0;
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_STATUS_BAR_HEIGHT);
         try {
-            int resourceId = Resources.getSystem().getIdentifier("status_bar_height", "dimen", "android");
-            if (resourceId > 0) {
-                result = Resources.getSystem().getDimensionPixelSize(resourceId);
+            return sProvider.getStatusBarHeight();
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
+    }
+
+    /**
+     * 获取 {@link Activity} 所在窗口顶部被状态栏 (以及刘海) 占用的高度, 窗口不在屏幕顶部时为 0
+     *
+     * @param activity {@link Activity}
+     * @return 状态栏高度
+     * @see ScreenMetricsProvider#getStatusBarHeight(Activity)
+     */
+    public static int getStatusBarHeight(Activity activity) {
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_STATUS_BAR_HEIGHT);
+        try {
+            return sProvider.getStatusBarHeight(activity);
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
             }
-        } catch (Resources.NotFoundException e) {
-            e.printStackTrace();
         }
-        return result;
     }
 
     /**
@@ -58,15 +85,44 @@ public class ScreenUtils {
      */
     public static int[] getScreenSize(Context context) {
         int[] size = new int[2];
+        getScreenSize(context, size);
+        return size;
+    }
 
-        WindowManager w = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        Display d = w.getDefaultDisplay();
-        DisplayMetrics metrics = new DisplayMetrics();
-        d.getMetrics(metrics);
+    /**
+     * 获取当前的屏幕尺寸, 结果写入 {@code outSize}, 不会创建新的数组
+     *
+     * @param context {@link Context}
+     * @param outSize 用于接收宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    public static void getScreenSize(Context context, int[] outSize) {
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_SCREEN_SIZE);
+        try {
+            sProvider.getScreenSize(context, outSize);
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
+    }
 
-        size[0] = metrics.widthPixels;
-        size[1] = metrics.heightPixels;
-        return size;
+    /**
+     * 获取 {@link Activity} 所在窗口的尺寸, 在分屏、自由窗口、折叠屏以及副屏上返回的都是这个窗口自身的尺寸, 而不是默认屏幕的尺寸
+     * 与 {@link #getScreenSize(Context)} 一样不包含导航栏, 但包含状态栏
+     * Android 11 及以上使用 {@link android.view.WindowMetrics}, 以下使用 {@link Activity} 所在的 {@link android.view.Display}
+     *
+     * @param activity {@link Activity}
+     * @param outSize  用于接收窗口宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    public static void getWindowSize(Activity activity, int[] outSize) {
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_WINDOW_SIZE);
+        try {
+            sProvider.getWindowSize(activity, outSize);
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
     }
 
     /**
@@ -77,46 +133,64 @@ public class ScreenUtils {
      */
     public static int[] getRawScreenSize(Context context) {
         int[] size = new int[2];
+        getRawScreenSize(context, size);
+        return size;
+    }
 
-        WindowManager w = (WindowManager) context.getSystemService(Context.WINDOW_SERVICE);
-        Display d = w.getDefaultDisplay();
-        DisplayMetrics metrics = new DisplayMetrics();
-        d.getMetrics(metrics);
-        // since SDK_INT = 1;
-        int widthPixels = metrics.widthPixels;
-        int heightPixels = metrics.heightPixels;
-
-        // includes window decorations (statusbar bar/menu bar)
-        if (Build.VERSION.SDK_INT >= 14 && Build.VERSION.SDK_INT < 17)
-            try {
-                widthPixels = (Integer) Display.class.getMethod("getRawWidth").invoke(d);
-                heightPixels = (Integer) Display.class.getMethod("getRawHeight").invoke(d);
-            } catch (Exception ignored) {
-            }
-        // includes window decorations (statusbar bar/menu bar)
-        if (Build.VERSION.SDK_INT >= 17)
-            try {
-                Point realSize = new Point();
-                Display.class.getMethod("getRealSize", Point.class).invoke(d, realSize);
-                widthPixels = realSize.x;
-                heightPixels = realSize.y;
-            } catch (Exception ignored) {
+    /**
+     * 获取原始的屏幕尺寸, 结果写入 {@code outSize}, 不会创建新的数组
+     *
+     * @param context {@link Context}
+     * @param outSize 用于接收宽度 ({@code outSize[0]}) 和高度 ({@code outSize[1]}) 的数组
+     */
+    public static void getRawScreenSize(Context context, int[] outSize) {
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_RAW_SCREEN_SIZE);
+        try {
+            sProvider.getRawScreenSize(context, outSize);
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
             }
-        size[0] = widthPixels;
-        size[1] = heightPixels;
-        return size;
+        }
     }
 
+    /**
+     * 获取导航栏的高度, 结果会被缓存, 只有导航栏的状态可能发生变化时才会重新计算, 详情请查看 {@link NavigationBarTracker}
+     * 缓存以 Application 为准, 所以返回的是默认屏幕上导航栏的高度
+     *
+     * @param context {@link Context}
+     * @return 导航栏的高度, 如果小米手机开启了全面屏手势隐藏了导航栏则返回 0
+     */
     public static int getHeightOfNavigationBar(Context context) {
-        //如果小米手机开启了全面屏手势隐藏了导航栏则返回 0
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
-            if (Settings.Global.getInt(context.getContentResolver(), "force_fsg_nav_bar", 0) != 0) {
-                return 0;
+        NavigationBarTracker tracker = sNavigationBarTracker;
+        if (tracker == null) {
+            synchronized (ScreenUtils.class) {
+                tracker = sNavigationBarTracker;
+                if (tracker == null) {
+                    tracker = new NavigationBarTracker(context);
+                    sNavigationBarTracker = tracker;
+                }
             }
         }
+        boolean traced = AutoSizeTrace.beginSection(AutoSizeTrace.SECTION_NAVIGATION_BAR_HEIGHT);
+        try {
+            return tracker.getHeight();
+        } finally {
+            if (traced) {
+                AutoSizeTrace.endSection();
+            }
+        }
+    }
 
-        int realHeight = getRawScreenSize(context)[1];
-        int displayHeight = getScreenSize(context)[1];
-        return realHeight - displayHeight;
+    /**
+     * 让缓存的导航栏高度失效, 下一次调用 {@link #getHeightOfNavigationBar(Context)} 时重新计算
+     * 框架已经监听了 {@code force_fsg_nav_bar} 和 Application 的 Configuration 的改变, 如果还需要跟随 WindowInsets 的改变
+     * 可以在 {@link android.view.View.OnApplyWindowInsetsListener} 中调用此方法
+     */
+    public static void invalidateNavigationBarHeight() {
+        NavigationBarTracker tracker = sNavigationBarTracker;
+        if (tracker != null) {
+            tracker.invalidate();
+        }
     }
 }
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import me.jessyan.autosize.annotation.AdaptRegistry;
+import me.jessyan.autosize.annotation.AdaptSpec;
+import me.jessyan.autosize.external.ExternalAdaptInfo;
+import me.jessyan.autosize.external.ExternalAdaptManager;
+import me.jessyan.autosize.internal.CancelAdapt;
+import me.jessyan.autosize.internal.CustomAdapt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link AdaptDecisionResolver} 的单元测试, 覆盖判断的优先级、沿父类查找注解以及缓存的失效条件
+ */
+public class AdaptDecisionResolverTest {
+    private static final AdaptRegistry[] NO_REGISTRIES = new AdaptRegistry[0];
+
+    private AdaptDecisionResolver mResolver;
+    private ExternalAdaptManager mManager;
+
+    @Before
+    public void setUp() {
+        mResolver = new AdaptDecisionResolver();
+        mManager = new ExternalAdaptManager();
+    }
+
+    @Test
+    public void plainClassUsesGlobal() {
+        AdaptDecisionResolver.Decision decision = mResolver.resolve(Plain.class, mManager, NO_REGISTRIES);
+        assertEquals(AdaptDecisionResolver.TYPE_GLOBAL, decision.type);
+        assertNull(decision.externalAdaptInfo);
+    }
+
+    @Test
+    public void interfacesAreChecked() {
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Cancel.class, mManager, NO_REGISTRIES).type);
+        assertEquals(AdaptDecisionResolver.TYPE_CUSTOM, mResolver.resolve(Custom.class, mManager, NO_REGISTRIES).type);
+        //CancelAdapt 的优先级高于 CustomAdapt
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(CancelAndCustom.class, mManager, NO_REGISTRIES).type);
+    }
+
+    @Test
+    public void externalRulesOnlyApplyWhenRunning() {
+        ExternalAdaptInfo info = new ExternalAdaptInfo(false, 667);
+        mManager.addExternalAdaptInfoOfActivity(Custom.class, info).setRun(false);
+        assertEquals(AdaptDecisionResolver.TYPE_CUSTOM, mResolver.resolve(Custom.class, mManager, NO_REGISTRIES).type);
+
+        mManager.setRun(true);
+        AdaptDecisionResolver.Decision decision = mResolver.resolve(Custom.class, mManager, NO_REGISTRIES);
+        assertEquals(AdaptDecisionResolver.TYPE_EXTERNAL, decision.type);
+        assertSame(info, decision.externalAdaptInfo);
+    }
+
+    @Test
+    public void externalRulesTakePriorityOverAnnotations() {
+        AdaptRegistry[] registries = {new MapRegistry().put(Plain.class, AdaptSpec.of(true, 400))};
+        mManager.addCancelAdaptOfActivity(Plain.class);
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Plain.class, mManager, registries).type);
+    }
+
+    @Test
+    public void annotationsTakePriorityOverInterfaces() {
+        AdaptRegistry[] registries = {new MapRegistry()
+                .put(Custom.class, AdaptSpec.of(false, 640))
+                .put(Cancel.class, AdaptSpec.of(true, 400))
+                .put(Plain.class, AdaptSpec.CANCEL)};
+
+        AdaptDecisionResolver.Decision decision = mResolver.resolve(Custom.class, mManager, registries);
+        assertEquals(AdaptDecisionResolver.TYPE_ANNOTATION, decision.type);
+        assertEquals(false, decision.externalAdaptInfo.isBaseOnWidth());
+        assertEquals(640f, decision.externalAdaptInfo.getSizeInDp(), 0);
+
+        assertEquals(AdaptDecisionResolver.TYPE_ANNOTATION, mResolver.resolve(Cancel.class, mManager, registries).type);
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Plain.class, mManager, registries).type);
+    }
+
+    @Test
+    public void annotationsAreInherited() {
+        MapRegistry registry = new MapRegistry().put(Plain.class, AdaptSpec.of(true, 400));
+        AdaptRegistry[] registries = {registry};
+
+        AdaptDecisionResolver.Decision decision = mResolver.resolve(PlainChild.class, mManager, registries);
+        assertEquals(AdaptDecisionResolver.TYPE_ANNOTATION, decision.type);
+        assertEquals(400f, decision.externalAdaptInfo.getSizeInDp(), 0);
+
+        //子类自己的注解覆盖父类的注解
+        registry.put(PlainChild.class, AdaptSpec.CANCEL);
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL
+                , new AdaptDecisionResolver().resolve(PlainChild.class, mManager, registries).type);
+    }
+
+    @Test
+    public void subclassInterfacesTakePriorityOverBaseClassAnnotations() {
+        AdaptRegistry[] registries = {new MapRegistry().put(Plain.class, AdaptSpec.of(true, 400))};
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(CancelPlainChild.class, mManager, registries).type);
+        assertEquals(AdaptDecisionResolver.TYPE_CUSTOM, mResolver.resolve(CustomPlainChild.class, mManager, registries).type);
+
+        //父类上的 @CancelAutoSize 同样不会覆盖子类自己实现的 CustomAdapt
+        registries = new AdaptRegistry[]{new MapRegistry().put(Plain.class, AdaptSpec.CANCEL)};
+        assertEquals(AdaptDecisionResolver.TYPE_CUSTOM, mResolver.resolve(CustomPlainChild.class, mManager, registries).type);
+    }
+
+    @Test
+    public void subclassAnnotationsTakePriorityOverBaseClassInterfaces() {
+        AdaptRegistry[] registries = {new MapRegistry().put(CancelAndCustom.class, AdaptSpec.of(false, 640))};
+        assertEquals(AdaptDecisionResolver.TYPE_ANNOTATION, mResolver.resolve(CancelAndCustom.class, mManager, registries).type);
+        //没有注解的子类继承父类自己实现的接口
+        assertEquals(AdaptDecisionResolver.TYPE_CUSTOM, mResolver.resolve(CustomChild.class, mManager, registries).type);
+    }
+
+    @Test
+    public void registriesAreCheckedInOrder() {
+        AdaptRegistry[] registries = {new MapRegistry().put(Plain.class, AdaptSpec.CANCEL)
+                , new MapRegistry().put(Plain.class, AdaptSpec.of(true, 400))};
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Plain.class, mManager, registries).type);
+    }
+
+    @Test
+    public void decisionIsCached() {
+        MapRegistry registry = new MapRegistry();
+        AdaptRegistry[] registries = {registry};
+        AdaptDecisionResolver.Decision decision = mResolver.resolve(PlainChild.class, mManager, registries);
+        int lookups = registry.lookups;
+        assertEquals(2, lookups);
+
+        assertSame(decision, mResolver.resolve(PlainChild.class, mManager, registries));
+        assertEquals(lookups, registry.lookups);
+    }
+
+    @Test
+    public void managerChangeInvalidatesCache() {
+        assertEquals(AdaptDecisionResolver.TYPE_GLOBAL, mResolver.resolve(Plain.class, mManager, NO_REGISTRIES).type);
+        mManager.addCancelAdaptOfActivity(Plain.class);
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Plain.class, mManager, NO_REGISTRIES).type);
+        mManager.setRun(false);
+        assertEquals(AdaptDecisionResolver.TYPE_GLOBAL, mResolver.resolve(Plain.class, mManager, NO_REGISTRIES).type);
+    }
+
+    @Test
+    public void registriesChangeInvalidatesCache() {
+        assertEquals(AdaptDecisionResolver.TYPE_GLOBAL, mResolver.resolve(Plain.class, mManager, NO_REGISTRIES).type);
+        AdaptRegistry[] registries = {new MapRegistry().put(Plain.class, AdaptSpec.CANCEL)};
+        assertEquals(AdaptDecisionResolver.TYPE_CANCEL, mResolver.resolve(Plain.class, mManager, registries).type);
+    }
+
+    private static class Plain {
+    }
+
+    private static class PlainChild extends Plain {
+    }
+
+    private static class Cancel implements CancelAdapt {
+    }
+
+    private static class Custom implements CustomAdapt {
+        @Override
+        public boolean isBaseOnWidth() {
+            return true;
+        }
+
+        @Override
+        public float getSizeInDp() {
+            return 0;
+        }
+    }
+
+    private static class CancelAndCustom extends Custom implements CancelAdapt {
+    }
+
+    private static class CustomChild extends Custom {
+    }
+
+    private static class CancelPlainChild extends Plain implements CancelAdapt {
+    }
+
+    private static class CustomPlainChild extends Plain implements CustomAdapt {
+        @Override
+        public boolean isBaseOnWidth() {
+            return true;
+        }
+
+        @Override
+        public float getSizeInDp() {
+            return 0;
+        }
+    }
+
+    private static class MapRegistry implements AdaptRegistry {
+        private final Map<Class<?>, AdaptSpec> mSpecs = new HashMap<>();
+        int lookups;
+
+        MapRegistry put(Class<?> targetClass, AdaptSpec spec) {
+            mSpecs.put(targetClass, spec);
+            return this;
+        }
+
+        @Override
+        public AdaptSpec find(Class<?> targetClass) {
+            lookups++;
+            return mSpecs.get(targetClass);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 JessYan
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package me.jessyan.autosize;
+
+import android.app.Activity;
+import android.support.v4.app.Fragment;
+import android.support.v4.app.FragmentActivity;
+import android.support.v4.app.FragmentManager;
+import android.util.DisplayMetrics;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.LooperMode;
+
+import java.lang.management.ManagementFactory;
+
+import me.jessyan.autosize.internal.CancelAdapt;
+import me.jessyan.autosize.internal.CustomAdapt;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 稳定状态下 Activity、Fragment 生命周期适配路径的分配预算测试, 随 {@code ./gradlew check} 一起运行
+ * <p>
+ * 使用 Robolectric 创建真实的 {@link FragmentActivity} 和 {@link Fragment}, 然后通过 {@link ActivityLifecycleCallbacksImpl}
+ * 和 {@link FragmentLifecycleCallbacksImpl} 反复执行 onActivityCreated、onActivityStarted、onFragmentCreated
+ * 判断适配方式、获取适配结果、赋值这些步骤在稳定状态下都不应该产生任何对象, 所以每个周期平均分配的字节数必须低于 {@link #BUDGET_BYTES_PER_CYCLE}
+ * 修改适配路径时如果引入了新的分配, 请先确认是否必要, 再调整预算
+ * <p>
+ * 使用 sdk 28 是为了让测试在 Java 8 上也可以运行, sdk 29 的 android-all 需要 Java 9 及以上
+ * 使用 {@link LooperMode.Mode#PAUSED} 是因为旧的 Looper 模式中每次 {@link android.os.Looper#myLooper()} 都会产生大量对象, 与真机的行为不符
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@LooperMode(LooperMode.Mode.PAUSED)
+public class LifecycleAllocationTest {
+    private static final int WARM_UP_CYCLES = 2000;
+    private static final int CYCLES = 5000;
+    /**
+     * 任何一次真实的分配都至少是 16 字节, 这个预算意味着每个周期平均连一个对象都不能分配
+     * 统计本身的开销 (例如读取分配字节数时的装箱) 会被 {@link #CYCLES} 个周期均摊
+     */
+    private static final long BUDGET_BYTES_PER_CYCLE = 16;
+
+    private ActivityLifecycleCallbacksImpl mActivityCallbacks;
+    private FragmentLifecycleCallbacksImpl mFragmentCallbacks;
+    private Activity[] mActivities;
+    private FragmentManager mFragmentManager;
+    private Fragment[] mFragments;
+
+    @Before
+    public void setUp() {
+        //使用延迟初始化, 避免读取 MetaData 的线程在测量过程中修改配置, 导致适配结果的缓存失效
+        AutoSize.initDeferred(RuntimeEnvironment.application);
+        //日志的格式化会产生大量对象, 并且线上环境也不会开启日志
+        AutoSizeConfig.getInstance().setLog(false);
+
+        AutoAdaptStrategy strategy = new WrapperAutoAdaptStrategy(new DefaultAutoAdaptStrategy());
+        mActivityCallbacks = new ActivityLifecycleCallbacksImpl(strategy);
+        mFragmentCallbacks = new FragmentLifecycleCallbacksImpl(strategy);
+
+        //与真机上的稳定状态一样, 让窗口完成 attach, 否则每次适配都会检查窗口是否已经 attach, 以便重新获取状态栏高度
+        GlobalActivity globalActivity = Robolectric.buildActivity(GlobalActivity.class).setup().get();
+        mActivities = new Activity[]{
+                globalActivity,
+                Robolectric.buildActivity(CustomActivity.class).setup().get(),
+                Robolectric.buildActivity(CancelActivity.class).setup().get()
+        };
+
+        mFragmentManager = globalActivity.getSupportFragmentManager();
+        mFragments = new Fragment[]{new GlobalFragment(), new CustomFragment()};
+        for (int i = 0; i < mFragments.length; i++) {
+            mFragmentManager.beginTransaction().add(mFragments[i], "fragment" + i).commitNow();
+        }
+    }
+
+    @Test
+    public void steadyStateLifecycleStaysWithinAllocationBudget() {
+        com.sun.management.ThreadMXBean threadMXBean = threadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        runCycles(WARM_UP_CYCLES);
+        long hitCount = AutoSize.getCacheStats().getHitCount();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        runCycles(CYCLES);
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - before;
+
+        //确认每个周期都真的走完了适配路径, 而不是在某一步提前返回, 取消适配的 CancelActivity 不会查找缓存
+        int cachedAdaptsPerCycle = (mActivities.length - 1) * 2 + mFragments.length;
+        assertTrue("expected every cycle to hit the density cache"
+                , AutoSize.getCacheStats().getHitCount() - hitCount >= (long) CYCLES * cachedAdaptsPerCycle);
+        //每个周期最后适配的是 CustomFragment, 这里重新按照全局配置 (默认的设计图宽度 360dp) 适配一次
+        mActivityCallbacks.onActivityStarted(mActivities[0]);
+        DisplayMetrics displayMetrics = mActivities[0].getResources().getDisplayMetrics();
+        assertEquals(360f, displayMetrics.widthPixels / displayMetrics.density, 1f);
+
+        double bytesPerCycle = (double) allocated / CYCLES;
+        assertTrue(String.format("allocated %.2f B per lifecycle cycle (budget %d B), total %d B in %d cycles"
+                , bytesPerCycle, BUDGET_BYTES_PER_CYCLE, allocated, CYCLES), bytesPerCycle < BUDGET_BYTES_PER_CYCLE);
+    }
+
+    /**
+     * 一个周期内每个 {@link Activity} 都会经过 onActivityCreated 和 onActivityStarted, 每个 {@link Fragment} 都会经过 onFragmentCreated
+     * 这里只使用数组, 避免循环本身产生迭代器
+     */
+    private void runCycles(int cycles) {
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            for (int i = 0; i < mActivities.length; i++) {
+                mActivityCallbacks.onActivityCreated(mActivities[i], null);
+                mActivityCallbacks.onActivityStarted(mActivities[i]);
+            }
+            for (int i = 0; i < mFragments.length; i++) {
+                mFragmentCallbacks.onFragmentCreated(mFragmentManager, mFragments[i], null);
+            }
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        assumeTrue("per-thread allocation counting is not available on this JVM"
+                , ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue("per-thread allocation counting is not supported on this JVM"
+                , threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+        return threadMXBean;
+    }
+
+    public static class GlobalActivity extends FragmentActivity {
+    }
+
+    public static class CustomActivity extends FragmentActivity implements CustomAdapt {
+        @Override
+        public boolean isBaseOnWidth() {
+            return false;
+        }
+
+        @Override
+        public float getSizeInDp() {
+            return 667;
+        }
+    }
+
+    public static class CancelActivity extends FragmentActivity implements CancelAdapt {
+    }
+
+    public static class GlobalFragment extends Fragment {
+    }
+
+    public static class CustomFragment extends Fragment implements CustomAdapt {
+        @Override
+        public boolean isBaseOnWidth() {
+            return true;
+        }
+
+        @Override
+        public float getSizeInDp() {
+            return 375;
+        }
+    }
+}